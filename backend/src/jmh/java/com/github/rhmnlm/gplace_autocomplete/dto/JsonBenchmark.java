@@ -0,0 +1,96 @@
+package com.github.rhmnlm.gplace_autocomplete.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.github.rhmnlm.gplace_autocomplete.util.UuidUtil;
+
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * JSON (de)serialization of the hottest payloads: listing pages and weather responses going out,
+ * Open-Meteo responses coming in
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private static final String OPEN_METEO_RESPONSE = """
+        {"latitude":3.125,"longitude":101.6875,"generationtime_ms":0.05,"utc_offset_seconds":0,
+         "timezone":"GMT","timezone_abbreviation":"GMT","elevation":56.0,
+         "current_units":{"time":"iso8601","interval":"seconds","temperature_2m":"°C",
+           "relative_humidity_2m":"%","weather_code":"wmo code","precipitation":"mm","is_day":"",
+           "apparent_temperature":"°C","wind_speed_10m":"km/h","wind_direction_10m":"°"},
+         "current":{"time":"2026-01-15T09:30","interval":900,"temperature_2m":31.4,
+           "relative_humidity_2m":66,"weather_code":2,"precipitation":0.0,"is_day":1,
+           "apparent_temperature":36.1,"wind_speed_10m":7.9,"wind_direction_10m":204}}
+        """;
+
+    @Param({ "10", "100" })
+    int pageSize;
+
+    private JsonMapper jsonMapper;
+    private Page<LocationResponse> page;
+    private WeatherResponse weatherResponse;
+
+    @Setup
+    public void setUp() {
+        // Same leniency as the Spring-managed mapper, Open-Meteo sends far more fields than we bind
+        jsonMapper = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+        UUID clientId = UuidUtil.generateUuidV7();
+        List<LocationResponse> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(new LocationResponse(UuidUtil.generateUuidV7(), "Place " + i, "3.1578", "101.7117",
+                LocalDateTime.now(), clientId, UuidUtil.generateUuidV7(), "Food"));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize, Sort.by(Sort.Order.desc("createdAt"))), 10_000);
+
+        weatherResponse = WeatherResponse.builder()
+            .latitude("3.1578")
+            .longitude("101.7117")
+            .weather(new WeatherData("Partly cloudy", 31.4, 36.1, 7.9, 66.0, "Partly cloudy"))
+            .build();
+    }
+
+    @Benchmark
+    public byte[] serializeLocationPage() {
+        return jsonMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeWeatherResponse() {
+        return jsonMapper.writeValueAsBytes(weatherResponse);
+    }
+
+    @Benchmark
+    public OpenMeteoResponse deserializeOpenMeteoResponse() {
+        return jsonMapper.readValue(OPEN_METEO_RESPONSE, OpenMeteoResponse.class);
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.rhmnlm.gplace_autocomplete.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse;
+import com.github.rhmnlm.gplace_autocomplete.entity.Category;
+import com.github.rhmnlm.gplace_autocomplete.entity.Client;
+import com.github.rhmnlm.gplace_autocomplete.entity.FavedLocation;
+import com.github.rhmnlm.gplace_autocomplete.entity.VisitedLocation;
+import com.github.rhmnlm.gplace_autocomplete.util.UuidUtil;
+
+/**
+ * Building location responses. Listings and exports construct them in the repository projections,
+ * once per row, formatting the fixed-point coordinates as text. Saves, write-behind batches and the
+ * nearby search map entities through LocationService.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocationMappingBenchmark {
+
+    private VisitedLocation visitedLocation;
+    private FavedLocation favedLocation;
+    private UUID clientId;
+    private UUID categoryId;
+
+    @Setup
+    public void setUp() {
+        Client client = new Client();
+        client.setClientId(UuidUtil.generateUuidV7());
+        client.setCreatedAt(LocalDateTime.now());
+
+        Category category = new Category();
+        category.setId(UuidUtil.generateUuidV7());
+        category.setCategoryName("Food");
+        category.setClient(client);
+
+        visitedLocation = new VisitedLocation();
+        visitedLocation.setId(UuidUtil.generateUuidV7());
+        visitedLocation.setPlaceDesc("KLCC Petronas Twin Towers");
+        visitedLocation.setCoordinates(new BigDecimal("3.1578"), new BigDecimal("101.7117"));
+        visitedLocation.setCreatedAt(LocalDateTime.now());
+        visitedLocation.setClient(client);
+
+        favedLocation = new FavedLocation();
+        favedLocation.setId(UuidUtil.generateUuidV7());
+        favedLocation.setPlaceDesc("Jalan Alor Food Street");
+        favedLocation.setCoordinates(new BigDecimal("3.1455"), new BigDecimal("101.7090"));
+        favedLocation.setCreatedAt(LocalDateTime.now());
+        favedLocation.setClient(client);
+        favedLocation.setCategory(category);
+
+        clientId = client.getClientId();
+        categoryId = category.getId();
+    }
+
+    // What FavedLocationRepository.SELECT_RESPONSE runs for each row, with DECIMAL(9,6) values as JDBC returns them
+    @Benchmark
+    public LocationResponse projectFavedLocationRow() {
+        return new LocationResponse(favedLocation.getId(), favedLocation.getPlaceDesc(), favedLocation.getLatitudeValue(),
+            favedLocation.getLongitudeValue(), favedLocation.getCreatedAt(), clientId, categoryId, "Food");
+    }
+
+    @Benchmark
+    public LocationResponse toVisitedLocationResponse() {
+        return LocationService.toLocationResponse(visitedLocation);
+    }
+
+    @Benchmark
+    public LocationResponse toFavedLocationResponse() {
+        return LocationService.toLocationResponse(favedLocation);
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.rhmnlm.gplace_autocomplete.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Favorites search over one client with 100k favorites, against the full scan a
+ * {@code LIKE '%x%'} query does
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrigramIndexBenchmark {
+
+    private static final int FAVORITES = 100_000;
+    private static final String[] WORDS = {
+        "Jalan", "Alor", "Food", "Street", "Petronas", "Twin", "Towers", "Bukit", "Bintang", "Central",
+        "Market", "Kampung", "Baru", "Mosque", "Ramen", "Sushi", "Coffee", "Bakery", "Station", "Park",
+        "Museum", "Library", "Garden", "Tower", "Plaza", "Mall", "Hotel", "Night", "Bridge", "Lake"
+    };
+    private static final String[] CATEGORIES = { "Food", "Work", "Family", "Shopping", "Travel", "Sports" };
+
+    private TrigramIndex index;
+    private List<String> texts;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        random = new Random(42);
+        index = new TrigramIndex();
+        texts = new ArrayList<>(FAVORITES);
+        for (int i = 0; i < FAVORITES; i++) {
+            String placeDesc = randomPlaceDesc() + " " + i;
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            index.put(UUID.randomUUID(), placeDesc, category);
+            texts.add(SearchText.normalize(placeDesc) + " " + SearchText.normalize(category));
+        }
+    }
+
+    @Benchmark
+    public List<UUID> searchMidWord() {
+        return index.search("ronas");
+    }
+
+    @Benchmark
+    public List<UUID> searchTwoTerms() {
+        return index.search("ramen stat");
+    }
+
+    @Benchmark
+    public List<UUID> searchRare() {
+        return index.search("ramen 4242");
+    }
+
+    // What the database does for LIKE '%ronas%': every favorite of the client is read and matched
+    @Benchmark
+    public int scanContains() {
+        int matches = 0;
+        for (String text : texts) {
+            if (text.contains("ronas")) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public TrigramIndex put() {
+        index.put(UUID.randomUUID(), randomPlaceDesc(), CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        return index;
+    }
+
+    private String randomPlaceDesc() {
+        int words = 2 + random.nextInt(3);
+        StringBuilder placeDesc = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        for (int w = 1; w < words; w++) {
+            placeDesc.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return placeDesc.toString();
+    }
+}
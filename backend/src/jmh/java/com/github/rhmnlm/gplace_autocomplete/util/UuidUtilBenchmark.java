@@ -0,0 +1,37 @@
+package com.github.rhmnlm.gplace_autocomplete.util;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * UUIDv7 generation is on every write path. The generator is a shared static instance,
+ * so the contended variant shows what concurrent requests pay for its internal locking.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidUtilBenchmark {
+
+    @Benchmark
+    @Threads(1)
+    public UUID generateUuidV7Uncontended() {
+        return UuidUtil.generateUuidV7();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UUID generateUuidV7Contended() {
+        return UuidUtil.generateUuidV7();
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.rhmnlm.gplace_autocomplete.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeatherCodeMapperBenchmark {
+
+    // Known codes from both ends of the table, plus an unknown one hitting the default
+    @Param({ "0", "63", "99", "42" })
+    int weathercode;
+
+    @Benchmark
+    public String getWeatherDescription() {
+        return WeatherCodeMapper.getWeatherDescription(weathercode);
+    }
+}
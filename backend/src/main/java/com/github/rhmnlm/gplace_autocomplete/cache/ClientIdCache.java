@@ -0,0 +1,188 @@
+package com.github.rhmnlm.gplace_autocomplete.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.rhmnlm.gplace_autocomplete.util.UuidBloomFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Known client ids. Client ids are immutable and never deleted, so a positive answer never goes stale.
+ * A bounded LRU set answers "exists" for recently seen clients.
+ *
+ * <p>"Does not exist" answers can go stale, since any instance may create a client. Ids the
+ * database reported missing are remembered for a short negative TTL. That is safe when scaled
+ * out because ids are generated when the client is created, so an id can only be looked up
+ * before it exists if it was guessed. Optionally, a Bloom filter over every client id answers
+ * "does not exist" without a database round trip once it has been warmed. It only sees clients
+ * created by this instance, so enable it (trust-negatives) only when a single instance creates
+ * all clients.
+ */
+@Component
+@Slf4j
+public class ClientIdCache {
+
+    private final int maxEntries;
+    private final boolean trustNegatives;
+    private final long negativeTtlNanos;
+    private final UuidBloomFilter bloomFilter;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bloomRejections = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+
+    // Access-ordered, used as an LRU set
+    private final LinkedHashMap<UUID, Boolean> knownIds;
+    // Insertion-ordered, id to the System.nanoTime() its negative answer expires at
+    private final LinkedHashMap<UUID, Long> unknownIds;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile boolean warmed;
+
+    public ClientIdCache(
+            @Value("${clients.cache.max-entries:100000}") int maxEntries,
+            @Value("${clients.cache.expected-clients:1000000}") long expectedClients,
+            @Value("${clients.cache.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${clients.cache.trust-negatives:false}") boolean trustNegatives,
+            @Value("${clients.cache.negative-ttl:30s}") Duration negativeTtl) {
+        this.maxEntries = maxEntries;
+        this.trustNegatives = trustNegatives;
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.bloomFilter = new UuidBloomFilter(expectedClients, falsePositiveRate);
+        this.knownIds = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+                return size() > ClientIdCache.this.maxEntries;
+            }
+        };
+        this.unknownIds = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Long> eldest) {
+                return size() > ClientIdCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * True if the client is known to exist without asking the database
+     */
+    public boolean isKnown(UUID clientId) {
+        boolean known;
+        lock.lock();
+        try {
+            known = knownIds.get(clientId) != null;
+        } finally {
+            lock.unlock();
+        }
+        if (known) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return known;
+    }
+
+    /**
+     * True if the client does not exist: the database said so within the negative TTL, or the
+     * warmed Bloom filter rules it out while negatives are trusted
+     */
+    public boolean isDefinitelyUnknown(UUID clientId) {
+        if (trustNegatives && warmed && !bloomFilter.mightContain(clientId)) {
+            bloomRejections.increment();
+            return true;
+        }
+        if (negativeTtlNanos <= 0) {
+            return false;
+        }
+        lock.lock();
+        try {
+            Long expiresAt = unknownIds.get(clientId);
+            if (expiresAt == null) {
+                return false;
+            }
+            if (expiresAt - System.nanoTime() <= 0) {
+                unknownIds.remove(clientId);
+                return false;
+            }
+        } finally {
+            lock.unlock();
+        }
+        negativeHits.increment();
+        return true;
+    }
+
+    /**
+     * The Bloom filter only answers when negatives are trusted, otherwise it need not be warmed
+     */
+    public boolean isTrustingNegatives() {
+        return trustNegatives;
+    }
+
+    public void add(UUID clientId) {
+        bloomFilter.put(clientId);
+        lock.lock();
+        try {
+            knownIds.put(clientId, Boolean.TRUE);
+            unknownIds.remove(clientId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remembers that the database has no such client, for the negative TTL
+     */
+    public void addUnknown(UUID clientId) {
+        if (negativeTtlNanos <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            // Re-inserted so the entry moves to the young end and eviction stays oldest first
+            unknownIds.remove(clientId);
+            unknownIds.put(clientId, System.nanoTime() + negativeTtlNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void markWarmed() {
+        warmed = true;
+        log.info("Client id cache warmed: {} cached ids, bloom filter {} bits / {} hashes",
+            size(), bloomFilter.getBitCount(), bloomFilter.getHashCount());
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return knownIds.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getBloomRejectionCount() {
+        return bloomRejections.sum();
+    }
+
+    public long getNegativeHitCount() {
+        return negativeHits.sum();
+    }
+}
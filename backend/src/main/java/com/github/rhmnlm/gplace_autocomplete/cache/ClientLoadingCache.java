@@ -0,0 +1,271 @@
+package com.github.rhmnlm.gplace_autocomplete.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Per-client values that are read from the database on a client's first request and then kept
+ * up to date from committed writes. This is the loading protocol shared by the recent visits
+ * cache and the search indexes; they own the values and how writes apply to them. Clients are
+ * evicted least recently used first once their values weigh more than {@code maxWeight} in
+ * total, but never while loading.
+ *
+ * <p>A load takes a ticket before it reads the database. Writes committed while it reads are
+ * kept aside and merged into the value it installs, so a load cannot install a snapshot that
+ * misses them. A load whose client was cancelled, evicted or cleared in the meantime installs
+ * nothing, even once the client is being loaded again.
+ *
+ * @param <V> the per-client value
+ * @param <W> a committed write
+ */
+final class ClientLoadingCache<V, W> {
+
+    /**
+     * Applies committed writes to a client's value, under the cache lock
+     */
+    @FunctionalInterface
+    interface Merge<V, W> {
+
+        /**
+         * @return the value's weight once the writes are applied, or -1 to drop the client
+         */
+        long apply(V value, List<W> writes);
+    }
+
+    private final long maxWeight;
+
+    private final LongAdder evictions = new LongAdder();
+
+    // Access-ordered so the eldest entry is always the least recently used client
+    private final LinkedHashMap<UUID, Entry<V, W>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long weight;
+    private long nextTicket;
+
+    ClientLoadingCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Starts loading a client. Call before reading the database and pass the returned ticket to
+     * {@link #completeLoad} or {@link #cancelLoad}.
+     *
+     * @return the load ticket, or -1 if the client is already cached or being loaded
+     */
+    long beginLoad(UUID clientId) {
+        lock.lock();
+        try {
+            if (entries.containsKey(clientId)) {
+                return -1;
+            }
+            Entry<V, W> entry = new Entry<>(++nextTicket);
+            entries.put(clientId, entry);
+            return entry.ticket;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Installs a client's value as read from the database, after merging the writes committed
+     * since the load began
+     *
+     * @return the installed value, or null if the load is stale or the merge dropped the client
+     */
+    V completeLoad(UUID clientId, long ticket, V value, Merge<V, W> merge) {
+        lock.lock();
+        try {
+            Entry<V, W> entry = entries.get(clientId);
+            if (entry == null || entry.ticket != ticket) {
+                return null;
+            }
+            long valueWeight = merge.apply(value, entry.pending);
+            if (valueWeight < 0) {
+                entries.remove(clientId);
+                return null;
+            }
+            entry.pending.clear();
+            entry.value = value;
+            entry.weight = valueWeight;
+            entry.lastAccess = System.currentTimeMillis();
+            weight += valueWeight;
+            evictIfNeeded();
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Abandons a load that failed, so a later request can try again
+     */
+    void cancelLoad(UUID clientId, long ticket) {
+        lock.lock();
+        try {
+            Entry<V, W> entry = entries.get(clientId);
+            if (entry != null && entry.ticket == ticket) {
+                entries.remove(clientId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the client's value, or null if it is not cached or still loading. Values that
+     * writes change must be guarded by a lock of their own, or read with {@link #read}.
+     */
+    V get(UUID clientId) {
+        return read(clientId, Function.identity());
+    }
+
+    /**
+     * Reads the client's value under the cache lock
+     *
+     * @return what the reader returned, or null if the client is not cached or still loading
+     */
+    <R> R read(UUID clientId, Function<? super V, R> reader) {
+        lock.lock();
+        try {
+            Entry<V, W> entry = entries.get(clientId);
+            if (entry == null || entry.value == null) {
+                return null;
+            }
+            entry.lastAccess = System.currentTimeMillis();
+            return reader.apply(entry.value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies committed writes, or keeps them for the load that is running. Clients that are not
+     * cached are ignored, they are loaded on their next request.
+     */
+    void write(UUID clientId, List<W> writes, Merge<V, W> merge) {
+        lock.lock();
+        try {
+            Entry<V, W> entry = entries.get(clientId);
+            if (entry == null) {
+                return;
+            }
+            if (entry.value == null) {
+                entry.pending.addAll(writes);
+                return;
+            }
+            long valueWeight = merge.apply(entry.value, writes);
+            if (valueWeight < 0) {
+                weight -= entry.weight;
+                entries.remove(clientId);
+                return;
+            }
+            weight += valueWeight - entry.weight;
+            entry.weight = valueWeight;
+            evictIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops a client, loaded or not
+     */
+    void evict(UUID clientId) {
+        lock.lock();
+        try {
+            Entry<V, W> entry = entries.remove(clientId);
+            if (entry != null) {
+                weight -= entry.weight;
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the loaded clients that were last read before the given time
+     */
+    void evictIdleSince(long idleSince) {
+        lock.lock();
+        try {
+            Iterator<Entry<V, W>> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry<V, W> entry = iterator.next();
+                if (entry.value != null && entry.lastAccess < idleSince) {
+                    weight -= entry.weight;
+                    iterator.remove();
+                    evictions.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every client, loaded or not
+     */
+    void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getWeight() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Entry<V, W>> eldest = entries.values().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            Entry<V, W> entry = eldest.next();
+            if (entry.value != null) {
+                weight -= entry.weight;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static final class Entry<V, W> {
+        final long ticket;
+        final List<W> pending = new ArrayList<>();
+        // Null while loading
+        V value;
+        long weight;
+        long lastAccess;
+
+        Entry(long ticket) {
+            this.ticket = ticket;
+        }
+    }
+}
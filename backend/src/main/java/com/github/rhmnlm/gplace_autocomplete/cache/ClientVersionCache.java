@@ -0,0 +1,126 @@
+package com.github.rhmnlm.gplace_autocomplete.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-client change versions behind the list endpoints' ETags. Every committed write to a
+ * client's visits, favorites or categories moves the client to a new version, so an unchanged
+ * version means an unchanged response and a conditional GET can be answered with 304 without
+ * a query.
+ *
+ * <p>Versions come from one counter and only ever grow for a client. Clients not held, never
+ * written to or evicted, share a floor version that is raised to the highest version evicted, so
+ * forgetting a client can change its ETag but never bring an old one back. ETags also carry the
+ * instance start time, which invalidates them all on restart. Writes are only seen by the
+ * instance that made them, so another instance would keep answering 304 for data that has
+ * changed. Off by default; enable only when a single instance serves every client.
+ */
+@Component
+@Slf4j
+public class ClientVersionCache {
+
+    private final boolean enabled;
+    private final int maxClients;
+    private final String instanceTag = Long.toString(System.currentTimeMillis(), 36);
+
+    private final LongAdder evictions = new LongAdder();
+
+    // Access-ordered, so clients that keep polling are kept
+    private final LinkedHashMap<UUID, Long> versions;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lastVersion;
+    private long floor;
+
+    public ClientVersionCache(
+            @Value("${clients.versions.enabled:false}") boolean enabled,
+            @Value("${clients.versions.max-clients:100000}") int maxClients) {
+        this.enabled = enabled;
+        this.maxClients = maxClients;
+        this.versions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Long> eldest) {
+                if (size() > ClientVersionCache.this.maxClients) {
+                    floor = Math.max(floor, eldest.getValue());
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        if (enabled) {
+            log.info("Client versions enabled: maxClients={}", maxClients);
+        }
+    }
+
+    /**
+     * Weak ETag for everything the client can list, or null when disabled
+     */
+    public String getETag(UUID clientId) {
+        if (!enabled) {
+            return null;
+        }
+        long version;
+        lock.lock();
+        try {
+            Long known = versions.get(clientId);
+            version = known != null ? known : floor;
+        } finally {
+            lock.unlock();
+        }
+        return "W/\"" + instanceTag + "-" + Long.toString(version, 36) + "\"";
+    }
+
+    /**
+     * Moves the client to a new version. Call once the write has committed, so a response read
+     * under the new version can only contain it.
+     */
+    public void increment(UUID clientId) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            versions.put(clientId, ++lastVersion);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves every client to a new version, after a write that is not tracked per client
+     */
+    public void incrementAll() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            versions.clear();
+            floor = ++lastVersion;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return versions.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,210 @@
+package com.github.rhmnlm.gplace_autocomplete.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse;
+import com.github.rhmnlm.gplace_autocomplete.util.TrigramIndex;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-client {@link TrigramIndex} over favorites' place descriptions and category names, so a
+ * favorite can be found by any part of its name without a {@code LIKE '%x%'} scan. Clients with
+ * more than {@code max-per-client} favorites are not indexed. Idle clients are evicted after
+ * {@code idle-timeout}, and least recently used ones once more than {@code max-documents}
+ * favorites are indexed in total.
+ *
+ * <p>A client is indexed on its first search. Favorites saved or recategorized while the index is
+ * being loaded are kept aside and applied on top of it; both are upserts by id, so applying one
+ * the load already read is harmless.
+ */
+@Component
+@Slf4j
+public class FavedSearchIndex {
+
+    private final boolean enabled;
+    private final int maxPerClient;
+    private final long idleMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Weighed by indexed favorites. Client indexes have their own lock for searches and updates,
+    // which merges take while holding the cache lock; never take the cache lock while holding a client's.
+    private final ClientLoadingCache<ClientIndex, LocationResponse> clients;
+
+    public FavedSearchIndex(
+            @Value("${locations.faved.search.enabled:true}") boolean enabled,
+            @Value("${locations.faved.search.max-per-client:200000}") int maxPerClient,
+            @Value("${locations.faved.search.max-documents:2000000}") long maxDocuments,
+            @Value("${locations.faved.search.idle-timeout:30m}") Duration idleTimeout) {
+        this.enabled = enabled;
+        this.maxPerClient = maxPerClient;
+        this.idleMillis = idleTimeout.toMillis();
+        this.clients = new ClientLoadingCache<>(maxDocuments);
+        if (enabled) {
+            log.info("Faved search index enabled: maxPerClient={}, maxDocuments={}, idleTimeout={}",
+                maxPerClient, maxDocuments, idleTimeout);
+        }
+    }
+
+    /**
+     * Clients with more favorites than this are searched in the database instead
+     */
+    public int getMaxPerClient() {
+        return maxPerClient;
+    }
+
+    /**
+     * Ids of the client's favorites matching the query, best first, or null if the client is not indexed
+     */
+    public List<UUID> search(UUID clientId, String query) {
+        // Too large clients are remembered as well, so they are not loaded again on every search
+        ClientIndex index = enabled ? clients.get(clientId) : null;
+        if (index == null || index.tooLarge) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return index.search(query);
+    }
+
+    /**
+     * Starts indexing a client. Call before reading the database and pass the returned ticket to
+     * {@link #completeLoad}; favorites saved in between are applied on top of what is read.
+     *
+     * @return the load ticket, or -1 if the client is already indexed or being loaded
+     */
+    public long beginLoad(UUID clientId) {
+        return enabled ? clients.beginLoad(clientId) : -1;
+    }
+
+    /**
+     * Installs the client's favorites as read from the database and answers the query that
+     * triggered the load
+     *
+     * @param favorites all of the client's favorites, at most {@link #getMaxPerClient()}, newest first
+     * @return the matching ids, best first, or null if the client was evicted while loading
+     */
+    public List<UUID> completeLoad(UUID clientId, long ticket, List<LocationResponse> favorites, String query) {
+        // Built outside the locks, so indexing a large client does not stall other clients' searches.
+        // Oldest first, so newer favorites get higher document numbers and win ties.
+        TrigramIndex trigrams = new TrigramIndex();
+        for (int i = favorites.size() - 1; i >= 0; i--) {
+            LocationResponse favorite = favorites.get(i);
+            trigrams.put(favorite.getId(), favorite.getPlaceDesc(), favorite.getCategoryName());
+        }
+
+        ClientIndex index = clients.completeLoad(clientId, ticket, new ClientIndex(trigrams), this::apply);
+        return index != null ? index.search(query) : null;
+    }
+
+    /**
+     * Ends a load that found more than {@link #getMaxPerClient()} favorites. The client stays
+     * unindexed, without further loads, until it is evicted as idle.
+     */
+    public void markTooLarge(UUID clientId, long ticket) {
+        ClientIndex tooLarge = new ClientIndex(new TrigramIndex());
+        tooLarge.tooLarge = true;
+        clients.completeLoad(clientId, ticket, tooLarge, (index, pending) -> 0);
+    }
+
+    /**
+     * Abandons a load that failed, so a later search can try again
+     */
+    public void cancelLoad(UUID clientId, long ticket) {
+        clients.cancelLoad(clientId, ticket);
+    }
+
+    /**
+     * Adds or replaces a committed favorite. Clients that are not indexed are ignored, they are
+     * loaded on their next search.
+     */
+    public void put(UUID clientId, LocationResponse favorite) {
+        if (enabled) {
+            clients.write(clientId, List.of(favorite), this::apply);
+        }
+    }
+
+    /**
+     * Drops a client, e.g. after a category rename changed many of its favorites at once
+     */
+    public void evict(UUID clientId) {
+        clients.evict(clientId);
+    }
+
+    @Scheduled(fixedDelayString = "${locations.faved.search.idle-timeout:30m}", initialDelayString = "${locations.faved.search.idle-timeout:30m}")
+    public void evictIdle() {
+        clients.evictIdleSince(System.currentTimeMillis() - idleMillis);
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    public long getIndexedDocuments() {
+        return clients.getWeight();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return clients.getEvictionCount();
+    }
+
+    // Upserts by id, weighing the client by its indexed favorites
+    private long apply(ClientIndex index, List<LocationResponse> favorites) {
+        index.lock.lock();
+        try {
+            if (index.tooLarge) {
+                return 0;
+            }
+            for (LocationResponse favorite : favorites) {
+                index.trigrams.put(favorite.getId(), favorite.getPlaceDesc(), favorite.getCategoryName());
+            }
+            if (index.trigrams.size() > maxPerClient) {
+                // Grew past the limit, from now on searched in the database
+                index.trigrams = new TrigramIndex();
+                index.tooLarge = true;
+            }
+            return index.trigrams.size();
+        } finally {
+            index.lock.unlock();
+        }
+    }
+
+    private static class ClientIndex {
+        // Guards the trigram index
+        final ReentrantLock lock = new ReentrantLock();
+        TrigramIndex trigrams;
+        // Written under both locks, read by searches under neither
+        volatile boolean tooLarge;
+
+        ClientIndex(TrigramIndex trigrams) {
+            this.trigrams = trigrams;
+        }
+
+        List<UUID> search(String query) {
+            lock.lock();
+            try {
+                return trigrams.search(query);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.github.rhmnlm.gplace_autocomplete.cache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse;
+import com.github.rhmnlm.gplace_autocomplete.dto.PlaceSuggestionResponse;
+import com.github.rhmnlm.gplace_autocomplete.dto.VisitedPlaceResponse;
+import com.github.rhmnlm.gplace_autocomplete.util.SearchText;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-client prefix index over the places a client has visited or faved, so what the user is
+ * typing can be completed from their own history without the database or Google Places. A place
+ * matches when a word of its description starts with the prefix, ignoring case and accents.
+ * Matches are ranked by visit count, a favorite counting as {@value #FAVED_WEIGHT} visits,
+ * halved for every {@code recency-half-life} since the place was last used. A place is a
+ * description at given coordinates, so same-named places elsewhere are suggested separately.
+ *
+ * <p>A client is indexed on its first request and then kept up to date from committed saves.
+ * Saves committed while the index is being loaded are added on top of what the load reads, so a
+ * visit may be counted twice, which only nudges the ranking. Clients idle for longer than
+ * {@code idle-timeout} are evicted, as is the least recently used one beyond {@code max-clients}.
+ */
+@Component
+@Slf4j
+public class PlaceSuggestionIndex {
+
+    private static final int FAVED_WEIGHT = 5;
+
+    private final boolean enabled;
+    private final int maxPlacesPerClient;
+    private final long idleMillis;
+    private final double halfLifeMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // One client weighs one. Client indexes have their own lock for their places, which merges
+    // take while holding the cache lock; never take the cache lock while holding a client's.
+    private final ClientLoadingCache<ClientIndex, Save> clients;
+
+    public PlaceSuggestionIndex(
+            @Value("${locations.suggest.enabled:true}") boolean enabled,
+            @Value("${locations.suggest.max-clients:10000}") int maxClients,
+            @Value("${locations.suggest.max-places-per-client:2000}") int maxPlacesPerClient,
+            @Value("${locations.suggest.idle-timeout:30m}") Duration idleTimeout,
+            @Value("${locations.suggest.recency-half-life:30d}") Duration recencyHalfLife) {
+        this.enabled = enabled;
+        this.maxPlacesPerClient = maxPlacesPerClient;
+        this.idleMillis = idleTimeout.toMillis();
+        this.halfLifeMillis = recencyHalfLife.toMillis();
+        this.clients = new ClientLoadingCache<>(maxClients);
+        if (enabled) {
+            log.info("Place suggestion index enabled: maxClients={}, maxPlacesPerClient={}, idleTimeout={}",
+                maxClients, maxPlacesPerClient, idleTimeout);
+        }
+    }
+
+    /**
+     * How many visited and faved places a load should read, most visited and newest first
+     */
+    public int getMaxPlacesPerClient() {
+        return maxPlacesPerClient;
+    }
+
+    /**
+     * Returns the client's best matches for the prefix, or null if the client is not indexed
+     */
+    public List<PlaceSuggestionResponse> suggest(UUID clientId, String prefix, int limit) {
+        ClientIndex index = enabled ? clients.get(clientId) : null;
+        if (index == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return index.search(SearchText.normalize(prefix), limit);
+    }
+
+    /**
+     * Same as {@link #suggest} over places read from the database, for when the client cannot be indexed
+     */
+    public List<PlaceSuggestionResponse> search(
+            List<VisitedPlaceResponse> visited, List<LocationResponse> faved, String prefix, int limit) {
+        ClientIndex index = new ClientIndex();
+        index.addAll(visited, faved);
+        return index.search(SearchText.normalize(prefix), limit);
+    }
+
+    /**
+     * Starts indexing a client. Call before reading the database and pass the returned ticket to
+     * {@link #completeLoad}; saves committed in between are added to the index.
+     *
+     * @return the load ticket, or -1 if the client is already indexed or being loaded
+     */
+    public long beginLoad(UUID clientId) {
+        return enabled ? clients.beginLoad(clientId) : -1;
+    }
+
+    /**
+     * Installs the client's places as read from the database
+     *
+     * @param visited up to {@link #getMaxPlacesPerClient()} visited places, most visited first
+     * @param faved   up to {@link #getMaxPlacesPerClient()} faved locations, newest first
+     */
+    public void completeLoad(UUID clientId, long ticket, List<VisitedPlaceResponse> visited, List<LocationResponse> faved) {
+        // Built outside the cache lock, so indexing a client does not stall the others
+        ClientIndex index = new ClientIndex();
+        index.addAll(visited, faved);
+        clients.completeLoad(clientId, ticket, index, PlaceSuggestionIndex::apply);
+    }
+
+    /**
+     * Abandons a load that failed, so a later request can try again
+     */
+    public void cancelLoad(UUID clientId, long ticket) {
+        clients.cancelLoad(clientId, ticket);
+    }
+
+    /**
+     * Adds committed visits. Clients that are not indexed are ignored, they are loaded on their next request.
+     */
+    public void addVisits(UUID clientId, Collection<LocationResponse> visits) {
+        if (enabled) {
+            clients.write(clientId, visits.stream().map(visit -> new Save(visit, false)).toList(), PlaceSuggestionIndex::apply);
+        }
+    }
+
+    /**
+     * Adds a committed favorite. Clients that are not indexed are ignored, they are loaded on their next request.
+     */
+    public void addFaved(UUID clientId, LocationResponse faved) {
+        if (enabled) {
+            clients.write(clientId, List.of(new Save(faved, true)), PlaceSuggestionIndex::apply);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${locations.suggest.idle-timeout:30m}", initialDelayString = "${locations.suggest.idle-timeout:30m}")
+    public void evictIdle() {
+        clients.evictIdleSince(System.currentTimeMillis() - idleMillis);
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return clients.getEvictionCount();
+    }
+
+    private static long apply(ClientIndex index, List<Save> saves) {
+        index.lock.lock();
+        try {
+            for (Save save : saves) {
+                LocationResponse location = save.location();
+                index.add(location.getPlaceDesc(), location.getLatitude(), location.getLongitude(), save.faved() ? 0 : 1,
+                    location.getCreatedAt(), save.faved());
+            }
+        } finally {
+            index.lock.unlock();
+        }
+        return 1;
+    }
+
+    private final class ClientIndex {
+        // Guards everything below
+        final ReentrantLock lock = new ReentrantLock();
+        // Normalized description and coordinates to place
+        final Map<PlaceKey, Place> places = new HashMap<>();
+        // Every word start of every normalized description, sorted, and the place it belongs to.
+        // Rebuilt by the first search after a place was added.
+        String[] keys = new String[0];
+        Place[] keyPlaces = new Place[0];
+        boolean keysStale;
+
+        void addAll(List<VisitedPlaceResponse> visited, List<LocationResponse> faved) {
+            lock.lock();
+            try {
+                for (VisitedPlaceResponse place : visited) {
+                    add(place.getPlaceDesc(), place.getLatitude(), place.getLongitude(), place.getVisitCount(),
+                        place.getLastVisitedAt(), false);
+                }
+                for (LocationResponse location : faved) {
+                    add(location.getPlaceDesc(), location.getLatitude(), location.getLongitude(), 0, location.getCreatedAt(), true);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Visits and favorites of the same place are merged. Same-named places elsewhere, such as
+        // branches of a chain, stay apart. Coordinates are compared as formatted by GeoCell.format.
+        void add(String placeDesc, String latitude, String longitude, long visits, LocalDateTime usedAt, boolean faved) {
+            String normalized = SearchText.normalize(placeDesc);
+            PlaceKey key = new PlaceKey(normalized, latitude, longitude);
+            Place place = places.get(key);
+            if (place == null) {
+                if (normalized.isEmpty() || places.size() >= maxPlacesPerClient) {
+                    return;
+                }
+                place = new Place(placeDesc, normalized, latitude, longitude);
+                places.put(key, place);
+                keysStale = true;
+            }
+            place.visitCount += visits;
+            place.faved |= faved;
+            if (usedAt != null && (place.lastUsedAt == null || usedAt.isAfter(place.lastUsedAt))) {
+                place.lastUsedAt = usedAt;
+                place.lastUsedMillis = usedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            }
+        }
+
+        List<PlaceSuggestionResponse> search(String prefix, int limit) {
+            if (prefix.isEmpty()) {
+                return List.of();
+            }
+            long now = System.currentTimeMillis();
+            lock.lock();
+            try {
+                if (keysStale) {
+                    rebuildKeys();
+                }
+                int from = Arrays.binarySearch(keys, prefix);
+                if (from < 0) {
+                    from = -from - 1;
+                }
+                // A place matches once even when several of its words start with the prefix
+                Map<Place, Double> scores = new IdentityHashMap<>();
+                for (int i = from; i < keys.length && keys[i].startsWith(prefix); i++) {
+                    scores.computeIfAbsent(keyPlaces[i], place -> score(place, now));
+                }
+                return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Place, Double>comparingByValue().reversed()
+                        .thenComparing(entry -> entry.getKey().placeDesc))
+                    .limit(limit)
+                    .map(entry -> entry.getKey().toResponse())
+                    .toList();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private double score(Place place, long now) {
+            double weight = place.visitCount + (place.faved ? FAVED_WEIGHT : 0);
+            long age = Math.max(0, now - place.lastUsedMillis);
+            return weight * Math.pow(0.5, age / halfLifeMillis);
+        }
+
+        private void rebuildKeys() {
+            List<Map.Entry<String, Place>> entries = new ArrayList<>();
+            for (Place place : places.values()) {
+                String normalized = place.normalized;
+                for (int i = 0; i < normalized.length(); i++) {
+                    if (SearchText.isWordStart(normalized, i)) {
+                        entries.add(Map.entry(normalized.substring(i), place));
+                    }
+                }
+            }
+            entries.sort(Map.Entry.comparingByKey(Comparator.naturalOrder()));
+            keys = new String[entries.size()];
+            keyPlaces = new Place[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                keys[i] = entries.get(i).getKey();
+                keyPlaces[i] = entries.get(i).getValue();
+            }
+            keysStale = false;
+        }
+    }
+
+    // A committed visit, or a favorite when faved
+    private record Save(LocationResponse location, boolean faved) {
+    }
+
+    private record PlaceKey(String normalized, String latitude, String longitude) {
+    }
+
+    private static final class Place {
+        final String placeDesc;
+        final String normalized;
+        final String latitude;
+        final String longitude;
+        long visitCount;
+        boolean faved;
+        LocalDateTime lastUsedAt;
+        long lastUsedMillis;
+
+        Place(String placeDesc, String normalized, String latitude, String longitude) {
+            this.placeDesc = placeDesc;
+            this.normalized = normalized;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        PlaceSuggestionResponse toResponse() {
+            return new PlaceSuggestionResponse(placeDesc, latitude, longitude, visitCount, faved, lastUsedAt);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.github.rhmnlm.gplace_autocomplete.cache;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The most recent visits of recently active clients, newest first, so the first page of the
+ * visited list can be served without the database. Each client holds at most {@code per-client}
+ * visits plus its total visit count; clients are evicted least recently used first once the
+ * cache holds more than {@code max-visits} visits in total.
+ *
+ * <p>A client is only cached after a database read of its first page. Writes committed while
+ * that read is running are kept aside and merged in when it completes, so a read cannot install
+ * a snapshot that misses them. The total read alongside the page only counts visits older than
+ * the page, so a visit newer than the page's oldest one is known to be missing from both and is
+ * counted when merged. A visit at or before that point may or may not have been counted, and the
+ * client is dropped instead, to be read again.
+ */
+@Component
+@Slf4j
+public class RecentVisitsCache {
+
+    private static final Comparator<LocationResponse> NEWEST_FIRST = Comparator
+        .comparing(LocationResponse::getCreatedAt)
+        .thenComparing(LocationResponse::getId)
+        .reversed();
+
+    private final boolean enabled;
+    private final int perClient;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Weighed by cached visits
+    private final ClientLoadingCache<Visits, LocationResponse> clients;
+
+    public RecentVisitsCache(
+            @Value("${locations.visited.recent-cache.enabled:true}") boolean enabled,
+            @Value("${locations.visited.recent-cache.per-client:20}") int perClient,
+            @Value("${locations.visited.recent-cache.max-visits:100000}") long maxVisits) {
+        this.enabled = enabled;
+        this.perClient = perClient;
+        this.clients = new ClientLoadingCache<>(maxVisits);
+        if (enabled) {
+            log.info("Recent visits cache enabled: perClient={}, maxVisits={}", perClient, maxVisits);
+        }
+    }
+
+    /**
+     * How many visits a load should read, newest first
+     */
+    public int getPerClient() {
+        return perClient;
+    }
+
+    /**
+     * True if requests for this page can be answered from the cache once the client is loaded:
+     * the first page, newest first, no larger than what is kept per client
+     */
+    public boolean canServe(Pageable pageable) {
+        return enabled
+            && pageable.getPageNumber() == 0
+            && pageable.getPageSize() <= perClient
+            && pageable.getSort().equals(Sort.by(Sort.Order.desc("createdAt")));
+    }
+
+    /**
+     * Returns the first page for the client, or null if it is not cached
+     */
+    public Page<LocationResponse> getFirstPage(UUID clientId, Pageable pageable) {
+        Page<LocationResponse> page = enabled ? clients.read(clientId, visits -> visits.firstPage(pageable)) : null;
+        if (page == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return page;
+    }
+
+    /**
+     * Starts loading a client. Call before reading the database and pass the returned ticket to
+     * {@link #completeLoad}; writes committed in between are merged into the loaded snapshot.
+     *
+     * @return the load ticket, or -1 if the client is already cached or being loaded
+     */
+    public long beginLoad(UUID clientId) {
+        return enabled ? clients.beginLoad(clientId) : -1;
+    }
+
+    /**
+     * Installs the client's newest visits as read from the database
+     *
+     * @param visits up to {@link #getPerClient()} visits, newest first
+     * @param total  the size of visits plus the number of visits older than the oldest of them
+     */
+    public void completeLoad(UUID clientId, long ticket, List<LocationResponse> visits, long total) {
+        Visits loaded = new Visits(total, visits.size() < total ? visits.get(visits.size() - 1).getCreatedAt() : null);
+        loaded.visits.addAll(visits);
+        // Nothing to serve without visits, do not spend an entry on unknown or empty clients
+        clients.completeLoad(clientId, ticket, loaded,
+            (value, written) -> total == 0 && written.isEmpty() ? -1 : merge(value, written));
+    }
+
+    /**
+     * Abandons a load that failed, so a later request can try again
+     */
+    public void cancelLoad(UUID clientId, long ticket) {
+        clients.cancelLoad(clientId, ticket);
+    }
+
+    /**
+     * Adds committed visits. Clients that are not cached are ignored, they are loaded on their next read.
+     */
+    public void addAll(UUID clientId, Collection<LocationResponse> visits) {
+        if (enabled) {
+            clients.write(clientId, List.copyOf(visits), this::merge);
+        }
+    }
+
+    /**
+     * Drops every client, e.g. after visits were deleted in bulk
+     */
+    public void clear() {
+        clients.clear();
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    public long getCachedVisits() {
+        return clients.getWeight();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    // Drops the client when a visit cannot be inserted, otherwise weighs it by its cached visits
+    private long merge(Visits value, List<LocationResponse> written) {
+        for (LocationResponse visit : written) {
+            if (!containsId(value.visits, visit.getId()) && !insert(value, visit)) {
+                return -1;
+            }
+        }
+        return value.visits.size();
+    }
+
+    // Keeps the visits sorted newest first and at most perClient long, the total counts every visit.
+    // Returns false for a visit the loaded total may already include: one no newer than the oldest
+    // visit that total was read up to, or one older than everything cached.
+    private boolean insert(Visits entry, LocationResponse visit) {
+        if (entry.countedUpTo != null && !visit.getCreatedAt().isAfter(entry.countedUpTo)) {
+            return false;
+        }
+        int index = 0;
+        while (index < entry.visits.size() && NEWEST_FIRST.compare(entry.visits.get(index), visit) < 0) {
+            index++;
+        }
+        if (index >= perClient) {
+            return false;
+        }
+        entry.total++;
+        entry.visits.add(index, visit);
+        if (entry.visits.size() > perClient) {
+            entry.visits.remove(entry.visits.size() - 1);
+        }
+        return true;
+    }
+
+    private static boolean containsId(List<LocationResponse> visits, UUID id) {
+        for (LocationResponse visit : visits) {
+            if (visit.getId().equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Visits {
+        final List<LocationResponse> visits = new ArrayList<>();
+        long total;
+        // Created time of the oldest visit read by the load, when older visits were only counted
+        final LocalDateTime countedUpTo;
+
+        Visits(long total, LocalDateTime countedUpTo) {
+            this.total = total;
+            this.countedUpTo = countedUpTo;
+        }
+
+        Page<LocationResponse> firstPage(Pageable pageable) {
+            List<LocationResponse> content = List.copyOf(visits.subList(0, Math.min(pageable.getPageSize(), visits.size())));
+            return new PageImpl<>(content, pageable, total);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.github.rhmnlm.gplace_autocomplete.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.rhmnlm.gplace_autocomplete.dto.WeatherData;
+import com.github.rhmnlm.gplace_autocomplete.dto.WeatherResult;
+import com.github.rhmnlm.gplace_autocomplete.util.GridCell;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded in-process cache of weather data keyed by grid cell.
+ * Entries expire after the configured TTL (Open-Meteo refreshes current
+ * conditions every 15 minutes) and the least recently used entry is evicted
+ * once the cache is full. Expired entries are kept for another stale TTL so
+ * the last known weather can be served while the cell is being refreshed.
+ */
+@Component
+@Slf4j
+public class WeatherCache {
+
+    private final double gridSizeDegrees;
+    private final long ttlMillis;
+    private final long staleTtlMillis;
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder prefetchHits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+
+    // Access-ordered so the eldest entry is always the least recently used one.
+    // Guarded by a ReentrantLock rather than synchronized so waiting virtual threads do not pin their carrier.
+    private final LinkedHashMap<GridCell, Entry> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public WeatherCache(
+            @Value("${weather.cache.grid-size-degrees:0.01}") double gridSizeDegrees,
+            @Value("${weather.cache.ttl:15m}") Duration ttl,
+            @Value("${weather.cache.stale-ttl:1h}") Duration staleTtl,
+            @Value("${weather.cache.max-entries:10000}") int maxEntries) {
+        this.gridSizeDegrees = gridSizeDegrees;
+        this.ttlMillis = ttl.toMillis();
+        this.staleTtlMillis = staleTtl.toMillis();
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<GridCell, Entry> eldest) {
+                if (size() > WeatherCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        log.info("Weather cache enabled: grid={} deg, ttl={}, staleTtl={}, maxEntries={}",
+            gridSizeDegrees, ttl, staleTtl, maxEntries);
+    }
+
+    public double getGridSizeDegrees() {
+        return gridSizeDegrees;
+    }
+
+    public GridCell cellOf(double latitude, double longitude) {
+        return GridCell.of(latitude, longitude, gridSizeDegrees);
+    }
+
+    /**
+     * Returns the cached weather for the cell, or null if absent or expired
+     */
+    public WeatherData get(GridCell cell) {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            Entry entry = entries.get(cell);
+            if (entry != null && entry.expiresAt() > now) {
+                hits.increment();
+                if (entry.prefetched()) {
+                    // First foreground use of a prefetched entry
+                    prefetchHits.increment();
+                    entries.put(cell, new Entry(entry.data(), entry.fetchedAt(), entry.expiresAt(), false));
+                }
+                return entry.data();
+            }
+            if (entry != null && entry.expiresAt() + staleTtlMillis <= now) {
+                entries.remove(cell);
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * The last known weather for a cell whose entry has expired, as long as it is within the stale
+     * TTL, or null. Meant for after a {@link #get(GridCell)} miss.
+     */
+    public WeatherResult getStale(GridCell cell) {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            Entry entry = entries.get(cell);
+            if (entry == null || entry.expiresAt() + staleTtlMillis <= now) {
+                return null;
+            }
+            if (entry.expiresAt() > now) {
+                // Refreshed since the miss
+                return WeatherResult.fresh(entry.data());
+            }
+            staleHits.increment();
+            LocalDateTime fetchedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.fetchedAt()), ZoneId.systemDefault());
+            return new WeatherResult(entry.data(), true, fetchedAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Same as {@link #get(GridCell)} but without touching the hit/miss counters
+     */
+    public WeatherData peek(GridCell cell) {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            Entry entry = entries.get(cell);
+            return entry != null && entry.expiresAt() > now ? entry.data() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(GridCell cell, WeatherData data) {
+        long now = System.currentTimeMillis();
+        put(cell, new Entry(data, now, now + ttlMillis, false));
+    }
+
+    /**
+     * Same as {@link #put(GridCell, WeatherData)} for data fetched ahead of demand, so the first
+     * foreground hit on it is counted as a used prefetch
+     */
+    public void putPrefetched(GridCell cell, WeatherData data) {
+        long now = System.currentTimeMillis();
+        put(cell, new Entry(data, now, now + ttlMillis, true));
+    }
+
+    /**
+     * When the cell's entry expires, in epoch milliseconds, or 0 if it is not cached
+     */
+    public long getExpiresAt(GridCell cell) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(cell);
+            return entry != null ? entry.expiresAt() : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(GridCell cell, Entry entry) {
+        lock.lock();
+        try {
+            entries.put(cell, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getPrefetchHitCount() {
+        return prefetchHits.sum();
+    }
+
+    public long getStaleHitCount() {
+        return staleHits.sum();
+    }
+
+    private record Entry(WeatherData data, long fetchedAt, long expiresAt, boolean prefetched) {
+    }
+}
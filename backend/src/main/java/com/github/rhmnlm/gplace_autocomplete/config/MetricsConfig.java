@@ -0,0 +1,225 @@
+package com.github.rhmnlm.gplace_autocomplete.config;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.rhmnlm.gplace_autocomplete.cache.ClientIdCache;
+import com.github.rhmnlm.gplace_autocomplete.cache.ClientVersionCache;
+import com.github.rhmnlm.gplace_autocomplete.cache.FavedSearchIndex;
+import com.github.rhmnlm.gplace_autocomplete.cache.PlaceSuggestionIndex;
+import com.github.rhmnlm.gplace_autocomplete.cache.RecentVisitsCache;
+import com.github.rhmnlm.gplace_autocomplete.cache.WeatherCache;
+import com.github.rhmnlm.gplace_autocomplete.service.FavedImportService;
+import com.github.rhmnlm.gplace_autocomplete.service.LocationExportService;
+import com.github.rhmnlm.gplace_autocomplete.service.VisitWriteBehindBuffer;
+import com.github.rhmnlm.gplace_autocomplete.service.WeatherPrefetcher;
+import com.github.rhmnlm.gplace_autocomplete.service.WeatherService;
+import com.github.rhmnlm.gplace_autocomplete.util.CircuitBreaker;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the counters kept by our in-process components as Micrometer meters. HTTP endpoint
+ * (http.server.requests), repository (spring.data.repository.invocations) and Hikari pool
+ * (hikaricp.*) metrics come from Spring Boot's auto-configuration.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    MeterBinder weatherCacheMetrics(WeatherCache weatherCache) {
+        return registry -> {
+            FunctionCounter.builder("cache.gets", weatherCache, WeatherCache::getHitCount)
+                .tags("cache", "weather", "result", "hit").register(registry);
+            FunctionCounter.builder("cache.gets", weatherCache, WeatherCache::getMissCount)
+                .tags("cache", "weather", "result", "miss").register(registry);
+            FunctionCounter.builder("cache.evictions", weatherCache, WeatherCache::getEvictionCount)
+                .tag("cache", "weather").register(registry);
+            Gauge.builder("cache.size", weatherCache, WeatherCache::size)
+                .tag("cache", "weather").register(registry);
+            Gauge.builder("cache.hit.ratio", weatherCache, cache -> hitRatio(cache.getHitCount(), cache.getMissCount()))
+                .tag("cache", "weather").register(registry);
+            FunctionCounter.builder("cache.prefetch.hits", weatherCache, WeatherCache::getPrefetchHitCount)
+                .tag("cache", "weather").register(registry);
+            FunctionCounter.builder("cache.stale.hits", weatherCache, WeatherCache::getStaleHitCount)
+                .tag("cache", "weather").register(registry);
+        };
+    }
+
+    // One gauge per circuit state, 1 for the current state and 0 for the others
+    @Bean
+    MeterBinder weatherCircuitBreakerMetrics(WeatherService weatherService) {
+        return registry -> {
+            for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                Gauge.builder("weather.api.circuit.state", weatherService, service -> service.getCircuitState() == state ? 1 : 0)
+                    .tag("state", state.name().toLowerCase(Locale.ROOT)).register(registry);
+            }
+            FunctionCounter.builder("weather.api.rejected", weatherService, WeatherService::getRejectedCount)
+                .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder weatherPrefetchMetrics(WeatherPrefetcher prefetcher) {
+        return registry -> {
+            FunctionCounter.builder("weather.prefetch.ticks", prefetcher, WeatherPrefetcher::getTickCount)
+                .register(registry);
+            FunctionCounter.builder("weather.prefetch.cells", prefetcher, WeatherPrefetcher::getRequestedCellCount)
+                .tag("result", "requested").register(registry);
+            FunctionCounter.builder("weather.prefetch.cells", prefetcher, WeatherPrefetcher::getRefreshedCellCount)
+                .tag("result", "refreshed").register(registry);
+            FunctionCounter.builder("weather.prefetch.cells", prefetcher, WeatherPrefetcher::getDeferredCellCount)
+                .tag("result", "deferred").register(registry);
+            Gauge.builder("weather.prefetch.active.clients", prefetcher, WeatherPrefetcher::getActiveClientCount)
+                .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder clientIdCacheMetrics(ClientIdCache clientIdCache) {
+        return registry -> {
+            FunctionCounter.builder("cache.gets", clientIdCache, ClientIdCache::getHitCount)
+                .tags("cache", "client-ids", "result", "hit").register(registry);
+            FunctionCounter.builder("cache.gets", clientIdCache, ClientIdCache::getMissCount)
+                .tags("cache", "client-ids", "result", "miss").register(registry);
+            FunctionCounter.builder("cache.bloom.rejections", clientIdCache, ClientIdCache::getBloomRejectionCount)
+                .tag("cache", "client-ids").register(registry);
+            FunctionCounter.builder("cache.negative.hits", clientIdCache, ClientIdCache::getNegativeHitCount)
+                .tag("cache", "client-ids").register(registry);
+            Gauge.builder("cache.size", clientIdCache, ClientIdCache::size)
+                .tag("cache", "client-ids").register(registry);
+            Gauge.builder("cache.hit.ratio", clientIdCache, cache -> hitRatio(cache.getHitCount(), cache.getMissCount()))
+                .tag("cache", "client-ids").register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder recentVisitsCacheMetrics(RecentVisitsCache recentVisitsCache) {
+        return registry -> {
+            FunctionCounter.builder("cache.gets", recentVisitsCache, RecentVisitsCache::getHitCount)
+                .tags("cache", "recent-visits", "result", "hit").register(registry);
+            FunctionCounter.builder("cache.gets", recentVisitsCache, RecentVisitsCache::getMissCount)
+                .tags("cache", "recent-visits", "result", "miss").register(registry);
+            Gauge.builder("cache.size", recentVisitsCache, RecentVisitsCache::size)
+                .tag("cache", "recent-visits").register(registry);
+            Gauge.builder("cache.entries.visits", recentVisitsCache, RecentVisitsCache::getCachedVisits)
+                .tag("cache", "recent-visits").register(registry);
+            Gauge.builder("cache.hit.ratio", recentVisitsCache, cache -> hitRatio(cache.getHitCount(), cache.getMissCount()))
+                .tag("cache", "recent-visits").register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder placeSuggestionIndexMetrics(PlaceSuggestionIndex index) {
+        return registry -> {
+            FunctionCounter.builder("cache.gets", index, PlaceSuggestionIndex::getHitCount)
+                .tags("cache", "place-suggestions", "result", "hit").register(registry);
+            FunctionCounter.builder("cache.gets", index, PlaceSuggestionIndex::getMissCount)
+                .tags("cache", "place-suggestions", "result", "miss").register(registry);
+            FunctionCounter.builder("cache.evictions", index, PlaceSuggestionIndex::getEvictionCount)
+                .tag("cache", "place-suggestions").register(registry);
+            Gauge.builder("cache.size", index, PlaceSuggestionIndex::size)
+                .tag("cache", "place-suggestions").register(registry);
+            Gauge.builder("cache.hit.ratio", index, cache -> hitRatio(cache.getHitCount(), cache.getMissCount()))
+                .tag("cache", "place-suggestions").register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder clientVersionCacheMetrics(ClientVersionCache cache) {
+        return registry -> {
+            FunctionCounter.builder("cache.evictions", cache, ClientVersionCache::getEvictionCount)
+                .tag("cache", "client-versions").register(registry);
+            Gauge.builder("cache.size", cache, ClientVersionCache::size)
+                .tag("cache", "client-versions").register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder favedSearchIndexMetrics(FavedSearchIndex index) {
+        return registry -> {
+            FunctionCounter.builder("cache.gets", index, FavedSearchIndex::getHitCount)
+                .tags("cache", "faved-search", "result", "hit").register(registry);
+            FunctionCounter.builder("cache.gets", index, FavedSearchIndex::getMissCount)
+                .tags("cache", "faved-search", "result", "miss").register(registry);
+            FunctionCounter.builder("cache.evictions", index, FavedSearchIndex::getEvictionCount)
+                .tag("cache", "faved-search").register(registry);
+            Gauge.builder("cache.size", index, FavedSearchIndex::size)
+                .tag("cache", "faved-search").register(registry);
+            Gauge.builder("cache.hit.ratio", index, cache -> hitRatio(cache.getHitCount(), cache.getMissCount()))
+                .tag("cache", "faved-search").register(registry);
+            Gauge.builder("cache.documents", index, FavedSearchIndex::getIndexedDocuments)
+                .tag("cache", "faved-search").register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder locationExportMetrics(LocationExportService exportService) {
+        return registry -> {
+            FunctionCounter.builder("locations.exports", exportService, LocationExportService::getCompletedCount)
+                .tag("result", "completed").register(registry);
+            FunctionCounter.builder("locations.exports", exportService, LocationExportService::getFailedCount)
+                .tag("result", "failed").register(registry);
+            FunctionCounter.builder("locations.export.rows", exportService, LocationExportService::getExportedRowCount)
+                .register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder favedImportMetrics(FavedImportService importService) {
+        return registry -> {
+            FunctionCounter.builder("locations.imports", importService, FavedImportService::getCompletedCount)
+                .tag("result", "completed").register(registry);
+            FunctionCounter.builder("locations.imports", importService, FavedImportService::getFailedCount)
+                .tag("result", "failed").register(registry);
+            FunctionCounter.builder("locations.import.rows", importService, FavedImportService::getImportedRowCount)
+                .tag("result", "imported").register(registry);
+            FunctionCounter.builder("locations.import.rows", importService, FavedImportService::getRejectedRowCount)
+                .tag("result", "rejected").register(registry);
+        };
+    }
+
+    @Bean
+    MeterBinder visitWriteBehindMetrics(VisitWriteBehindBuffer buffer) {
+        return registry -> {
+            Gauge.builder("visits.write.behind.queue.depth", buffer, VisitWriteBehindBuffer::getQueueDepth)
+                .register(registry);
+            FunctionCounter.builder("visits.write.behind.flushed", buffer, VisitWriteBehindBuffer::getFlushedCount)
+                .register(registry);
+            FunctionCounter.builder("visits.write.behind.failed", buffer, VisitWriteBehindBuffer::getFailedCount)
+                .register(registry);
+            FunctionCounter.builder("visits.write.behind.retries", buffer, VisitWriteBehindBuffer::getRetryCount)
+                .register(registry);
+            FunctionTimer.builder("visits.write.behind.flush", buffer,
+                    VisitWriteBehindBuffer::getFlushCount, VisitWriteBehindBuffer::getTotalFlushMillis, TimeUnit.MILLISECONDS)
+                .register(registry);
+        };
+    }
+
+    // In virtual-thread mode callers queue on the permit semaphore before they reach the pool,
+    // so hikaricp.connections.pending alone under-reports saturation
+    @Bean
+    MeterBinder dataSourceConcurrencyMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConcurrencyLimitedDataSource limited) {
+                Gauge.builder("db.concurrency.permits.available", limited, ConcurrencyLimitedDataSource::getAvailablePermits)
+                    .register(registry);
+                Gauge.builder("db.concurrency.permits.waiting", limited, ConcurrencyLimitedDataSource::getQueueLength)
+                    .register(registry);
+            }
+        };
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
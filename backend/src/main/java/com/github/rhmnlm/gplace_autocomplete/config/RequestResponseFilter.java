@@ -1,32 +1,206 @@
 package com.github.rhmnlm.gplace_autocomplete.config;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+/**
+ * Sampled request/response logging. Only requests matching request-logging.include-paths are
+ * considered, and of those only request-logging.sample-rate are logged. Everything else passes
+ * through unwrapped. Logged bodies are truncated to request-logging.max-body-bytes and quoted
+ * with line breaks escaped, so each exchange is one line. Listed headers are redacted, and
+ * records go to the "http.exchange" logger, which logback-spring.xml routes through an async
+ * appender so log I/O stays off the request thread. Asynchronous exchanges (streamed exports and
+ * imports) are logged when they complete rather than when the handler returns, so status, body
+ * and duration cover the whole response.
+ */
 @Component
 public class RequestResponseFilter extends OncePerRequestFilter {
+
+    private static final Logger exchangeLog = LoggerFactory.getLogger("http.exchange");
+    private static final String REDACTED = "***";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final List<String> includePaths;
+    private final int maxBodyBytes;
+    private final boolean includeHeaders;
+    private final Set<String> redactedHeaders;
+
+    public RequestResponseFilter(
+            @Value("${request-logging.enabled:true}") boolean enabled,
+            @Value("${request-logging.sample-rate:1.0}") double sampleRate,
+            @Value("${request-logging.include-paths:/api/**}") String[] includePaths,
+            @Value("${request-logging.max-body-bytes:2048}") int maxBodyBytes,
+            @Value("${request-logging.include-headers:false}") boolean includeHeaders,
+            @Value("${request-logging.redacted-headers:authorization,cookie,set-cookie,proxy-authorization,x-api-key}") String[] redactedHeaders) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.includePaths = List.of(includePaths);
+        this.maxBodyBytes = maxBodyBytes;
+        this.includeHeaders = includeHeaders;
+        this.redactedHeaders = Arrays.stream(redactedHeaders)
+            .map(header -> header.trim().toLowerCase(Locale.ROOT))
+            .collect(Collectors.toUnmodifiableSet());
+    }
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
-        // Spring Framework 7+ requires explicit cacheLimit constructor
-        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request, 1024 * 1024);
-        ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
+        if (!isSampled(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Both wrappers only keep the first maxBodyBytes, bodies still stream through unbuffered
+        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request, maxBodyBytes);
+        CapturingResponseWrapper wrappedResponse = new CapturingResponseWrapper(response, maxBodyBytes);
+        long start = System.nanoTime();
         
         try {
             filterChain.doFilter(wrappedRequest, wrappedResponse);
         } finally {
-            wrappedResponse.copyBodyToResponse();
+            if (wrappedRequest.isAsyncStarted()) {
+                // Streaming responses are still being written, log once the async exchange completes
+                wrappedRequest.getAsyncContext().addListener(new LogOnCompletion(wrappedRequest, wrappedResponse, start));
+            } else {
+                wrappedResponse.flushWriter();
+                logExchange(wrappedRequest, wrappedResponse, (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+    }
+
+    private boolean isSampled(HttpServletRequest request) {
+        if (!enabled || !exchangeLog.isInfoEnabled() || sampleRate <= 0) {
+            return false;
+        }
+        String path = request.getRequestURI();
+        if (includePaths.stream().noneMatch(pattern -> pathMatcher.match(pattern, path))) {
+            return false;
+        }
+        return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private void logExchange(ContentCachingRequestWrapper request, CapturingResponseWrapper response, long durationMs) {
+        byte[] requestBody = request.getContentAsByteArray();
+        byte[] responseBody = response.getCapturedBody();
+
+        exchangeLog.info("method={} uri={} query={} status={} durationMs={} requestBytes={} responseBytes={} headers={} requestBody={} responseBody={}",
+            request.getMethod(),
+            request.getRequestURI(),
+            quote(request.getQueryString()),
+            response.getStatus(),
+            durationMs,
+            request.getContentLengthLong(),
+            response.getBodySize(),
+            includeHeaders ? quote(getHeadersAsString(request)) : "-",
+            quote(truncate(requestBody, request.getContentLengthLong())),
+            quote(truncate(responseBody, response.getBodySize())));
+    }
+
+    private class LogOnCompletion implements AsyncListener {
+
+        private final ContentCachingRequestWrapper request;
+        private final CapturingResponseWrapper response;
+        private final long start;
+
+        LogOnCompletion(ContentCachingRequestWrapper request, CapturingResponseWrapper response, long start) {
+            this.request = request;
+            this.response = response;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            // Also called after a timeout or error, so the exchange is logged exactly once
+            response.flushWriter();
+            logExchange(request, response, (System.nanoTime() - start) / 1_000_000);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // A new async cycle drops registered listeners, register for that one too
+            event.getAsyncContext().addListener(this);
         }
     }
+
+    private String truncate(byte[] body, long totalSize) {
+        if (body.length == 0) {
+            return "";
+        }
+        String text = new String(body, StandardCharsets.UTF_8);
+        return totalSize > body.length ? text + "...(truncated)" : text;
+    }
+
+    // Client-supplied text is quoted with line breaks and other control characters escaped, so every
+    // exchange stays a single line and cannot forge records of its own
+    static String quote(String value) {
+        if (value == null) {
+            return "-";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (Character.isISOControl(c) || c == '\u2028' || c == '\u2029') {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private String getHeadersAsString(HttpServletRequest request) {
+        StringBuilder headers = new StringBuilder("{");
+        request.getHeaderNames().asIterator().forEachRemaining(headerName -> {
+            if (headers.length() > 1) {
+                headers.append(", ");
+            }
+            String value = redactedHeaders.contains(headerName.toLowerCase(Locale.ROOT))
+                ? REDACTED
+                : request.getHeader(headerName);
+            headers.append(headerName).append(": ").append(value);
+        });
+        return headers.append('}').toString();
+    }
 }
@@ -0,0 +1,40 @@
+package com.github.rhmnlm.gplace_autocomplete.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Virtual-thread mode (spring.threads.virtual.enabled). Spring Boot already runs Tomcat request
+ * handling, @Async and @Scheduled on virtual threads in this mode; WeatherService and
+ * VisitWriteBehindBuffer read the same flag for their own threads. This adds the matching limit
+ * on database concurrency.
+ */
+@Configuration
+@Slf4j
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor dataSourceConcurrencyLimiter(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${db.concurrency.acquire-timeout:30s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (virtualThreads && bean instanceof HikariDataSource hikari) {
+                    int permits = hikari.getMaximumPoolSize();
+                    log.info("Limiting database concurrency to {} (Hikari pool size) for virtual threads", permits);
+                    return new ConcurrencyLimitedDataSource(hikari, permits, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -3,33 +3,22 @@ package com.github.rhmnlm.gplace_autocomplete.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import com.github.rhmnlm.gplace_autocomplete.interceptor.RequestResponseLoggingInterceptor;
-
-import lombok.RequiredArgsConstructor;
-
 @Configuration
-@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
-    private final RequestResponseLoggingInterceptor requestResponseLoggingInterceptor;
-
     @Value("${cors.allowed-origin}")
     private String allowedOrigin;
 
-    @Override
-    public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(requestResponseLoggingInterceptor);
-    }
-
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins(allowedOrigin)
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                // Lets the frontend read list versions; revalidation itself is done by the browser cache
+                .exposedHeaders("ETag")
                 .allowCredentials(true);
     }
 }
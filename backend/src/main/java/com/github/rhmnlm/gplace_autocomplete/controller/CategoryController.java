@@ -15,6 +15,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.github.rhmnlm.gplace_autocomplete.dto.CategoryRequest;
 import com.github.rhmnlm.gplace_autocomplete.dto.CategoryResponse;
@@ -30,6 +31,7 @@ import lombok.RequiredArgsConstructor;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final ClientConditionalGet conditionalGet;
 
     @PostMapping
     public ResponseEntity<CategoryResponse> createCategory(@RequestBody @Valid CategoryRequest request) {
@@ -51,22 +53,22 @@ public class CategoryController {
             @RequestParam UUID clientId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt,desc") String sort
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            WebRequest webRequest
         ) {
         Pageable pageable = PageRequest.of(
             page,
             size,
             Sort.by(Sort.Order.desc("createdAt"))
         );
-        Page<CategoryResponse> categories = categoryService.getCategories(clientId, pageable);
-        return ResponseEntity.ok(categories);
+        return conditionalGet.respond(webRequest, clientId, () -> categoryService.getCategories(clientId, pageable));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<CategoryResponse> getCategoryById(
             @PathVariable UUID id,
-            @RequestParam UUID clientId) {
-        CategoryResponse response = categoryService.getCategoryById(id, clientId);
-        return ResponseEntity.ok(response);
+            @RequestParam UUID clientId,
+            WebRequest webRequest) {
+        return conditionalGet.respond(webRequest, clientId, () -> categoryService.getCategoryById(id, clientId));
     }
 }
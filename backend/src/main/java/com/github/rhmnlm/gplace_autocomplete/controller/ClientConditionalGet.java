@@ -0,0 +1,43 @@
+package com.github.rhmnlm.gplace_autocomplete.controller;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import com.github.rhmnlm.gplace_autocomplete.cache.ClientVersionCache;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Conditional GET for responses that only change when the client writes something: the ETag is
+ * the client's change version, checked against If-None-Match before the body is computed
+ */
+@Component
+@RequiredArgsConstructor
+class ClientConditionalGet {
+
+    // Browsers may keep the response but must revalidate it on every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final ClientVersionCache clientVersionCache;
+
+    /**
+     * 304 Not Modified if the request's ETag is still current, otherwise 200 with the body
+     */
+    <T> ResponseEntity<T> respond(WebRequest request, UUID clientId, Supplier<T> body) {
+        // Read before the body, so a write committed meanwhile moves the client past this ETag
+        String eTag = clientVersionCache.getETag(clientId);
+        if (eTag == null) {
+            return ResponseEntity.ok(body.get());
+        }
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).body(body.get());
+    }
+}
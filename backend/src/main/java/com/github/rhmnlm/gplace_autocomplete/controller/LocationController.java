@@ -1,11 +1,20 @@
 package com.github.rhmnlm.gplace_autocomplete.controller;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -15,14 +24,28 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.github.rhmnlm.gplace_autocomplete.dto.AssignCategoryRequest;
+import com.github.rhmnlm.gplace_autocomplete.dto.BatchResponse;
+import com.github.rhmnlm.gplace_autocomplete.dto.CursorPage;
 import com.github.rhmnlm.gplace_autocomplete.dto.LocationRequest;
 import com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse;
-import com.github.rhmnlm.gplace_autocomplete.dto.WeatherData;
+import com.github.rhmnlm.gplace_autocomplete.dto.NearbyLocationResponse;
+import com.github.rhmnlm.gplace_autocomplete.dto.PlaceSuggestionResponse;
+import com.github.rhmnlm.gplace_autocomplete.dto.VisitedLocationBatchRequest;
+import com.github.rhmnlm.gplace_autocomplete.dto.VisitedPlaceResponse;
+import com.github.rhmnlm.gplace_autocomplete.dto.WeatherBatchRequest;
+import com.github.rhmnlm.gplace_autocomplete.dto.WeatherBatchResponse;
 import com.github.rhmnlm.gplace_autocomplete.dto.WeatherResponse;
+import com.github.rhmnlm.gplace_autocomplete.dto.WeatherResult;
+import com.github.rhmnlm.gplace_autocomplete.service.FavedImportService;
+import com.github.rhmnlm.gplace_autocomplete.service.LocationExportService;
 import com.github.rhmnlm.gplace_autocomplete.service.LocationService;
 import com.github.rhmnlm.gplace_autocomplete.service.WeatherService;
+import com.github.rhmnlm.gplace_autocomplete.util.GeoCell;
+import com.github.rhmnlm.gplace_autocomplete.util.TrigramIndex;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -32,8 +55,16 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class LocationController {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final double MAX_NEARBY_RADIUS_METERS = 100_000;
+    private static final int MAX_SUGGEST_PREFIX_LENGTH = 100;
+    private static final int MAX_SEARCH_QUERY_LENGTH = 100;
+
     private final LocationService locationService;
+    private final LocationExportService locationExportService;
+    private final FavedImportService favedImportService;
     private final WeatherService weatherService;
+    private final ClientConditionalGet conditionalGet;
     
     @PostMapping("/visited")
     public ResponseEntity<LocationResponse> saveVisitedLocation(@RequestBody @Valid LocationRequest request) {
@@ -41,6 +72,12 @@ public class LocationController {
         return ResponseEntity.ok(response);
     }
     
+    @PostMapping("/visited/batch")
+    public ResponseEntity<BatchResponse> saveVisitedLocations(@RequestBody @Valid VisitedLocationBatchRequest request) {
+        BatchResponse response = locationService.saveVisitedLocations(request);
+        return ResponseEntity.ok(response);
+    }
+    
     @PostMapping("/faved")
     public ResponseEntity<LocationResponse> saveFavedLocation(@RequestBody @Valid LocationRequest request) {
         LocationResponse response = locationService.saveFavedLocation(request);
@@ -52,15 +89,19 @@ public class LocationController {
             @RequestParam UUID clientId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt,desc") String sort
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            WebRequest webRequest
         ) {
         Pageable pageable = PageRequest.of(
             page,
             size,
             Sort.by(Sort.Order.desc("createdAt"))
         );
-        Page<LocationResponse> locations = locationService.getVisitedLocations(clientId, pageable);
-        return ResponseEntity.ok(locations);
+        return conditionalGet.respond(webRequest, clientId, () -> {
+            // The first page usually comes from the recent visits cache without touching the database
+            Page<LocationResponse> locations = locationService.getCachedVisitedLocations(clientId, pageable);
+            return locations != null ? locations : locationService.getVisitedLocations(clientId, pageable);
+        });
     }
     
     @GetMapping("/faved")
@@ -68,17 +109,139 @@ public class LocationController {
             @RequestParam UUID clientId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt,desc") String sort
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            WebRequest webRequest
         ) {
         Pageable pageable = PageRequest.of(
             page,
             size,
             Sort.by(Sort.Order.desc("createdAt"))
         );
-        Page<LocationResponse> locations = locationService.getFavedLocations(clientId, pageable);
+        locationService.recordFavedActivity(clientId);
+        return conditionalGet.respond(webRequest, clientId, () -> locationService.getFavedLocations(clientId, pageable));
+    }
+
+    @GetMapping("/visited/cursor")
+    public ResponseEntity<CursorPage<LocationResponse>> getVisitedLocationsByCursor(
+            @RequestParam UUID clientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest
+        ) {
+        return conditionalGet.respond(webRequest, clientId,
+            () -> locationService.getVisitedLocations(clientId, cursor, clampPageSize(size)));
+    }
+
+    @GetMapping("/visited/top")
+    public ResponseEntity<List<VisitedPlaceResponse>> getTopVisitedPlaces(
+            @RequestParam UUID clientId,
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest webRequest
+        ) {
+        return conditionalGet.respond(webRequest, clientId,
+            () -> locationService.getTopVisitedPlaces(clientId, clampPageSize(limit)));
+    }
+
+    @GetMapping("/faved/cursor")
+    public ResponseEntity<CursorPage<LocationResponse>> getFavedLocationsByCursor(
+            @RequestParam UUID clientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest
+        ) {
+        locationService.recordFavedActivity(clientId);
+        return conditionalGet.respond(webRequest, clientId,
+            () -> locationService.getFavedLocations(clientId, cursor, clampPageSize(size)));
+    }
+
+    @GetMapping("/faved/nearby")
+    public ResponseEntity<List<NearbyLocationResponse>> getNearbyFavedLocations(
+            @RequestParam UUID clientId,
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "5000") double radiusMeters,
+            @RequestParam(defaultValue = "20") int limit,
+            WebRequest webRequest
+        ) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            throw new IllegalArgumentException("Invalid coordinates: lat=" + lat + ", lon=" + lon);
+        }
+        if (radiusMeters <= 0 || radiusMeters > MAX_NEARBY_RADIUS_METERS) {
+            throw new IllegalArgumentException("radiusMeters must be between 0 and " + MAX_NEARBY_RADIUS_METERS);
+        }
+        return conditionalGet.respond(webRequest, clientId, () -> locationService.getNearbyFavedLocations(
+            clientId, lat, lon, radiusMeters, clampPageSize(limit)));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<PlaceSuggestionResponse>> suggestPlaces(
+            @RequestParam UUID clientId,
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "5") int limit
+        ) {
+        if (prefix.isBlank() || prefix.length() > MAX_SUGGEST_PREFIX_LENGTH) {
+            throw new IllegalArgumentException("prefix must be between 1 and " + MAX_SUGGEST_PREFIX_LENGTH + " characters");
+        }
+        List<PlaceSuggestionResponse> suggestions = locationService.suggestPlaces(clientId, prefix, clampPageSize(limit));
+        return ResponseEntity.ok(suggestions);
+    }
+
+    @GetMapping("/faved/search")
+    public ResponseEntity<Page<LocationResponse>> searchFavedLocations(
+            @RequestParam UUID clientId,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size
+        ) {
+        if (q.length() > MAX_SEARCH_QUERY_LENGTH || !TrigramIndex.isSearchable(q)) {
+            throw new IllegalArgumentException("q must be at most " + MAX_SEARCH_QUERY_LENGTH
+                + " characters and contain a word of at least " + TrigramIndex.MIN_TERM_LENGTH + " characters");
+        }
+        // Newest first only applies to the database fallback, indexed results are ranked by relevance
+        Pageable pageable = PageRequest.of(
+            Math.max(page, 0),
+            clampPageSize(size),
+            Sort.by(Sort.Order.desc("createdAt"))
+        );
+        Page<LocationResponse> locations = locationService.searchFavedLocations(clientId, q, pageable);
         return ResponseEntity.ok(locations);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportLocations(
+            @RequestParam UUID clientId,
+            @RequestParam(defaultValue = "ndjson") String format
+        ) {
+        LocationExportService.Format exportFormat = LocationExportService.Format.of(format);
+        locationExportService.checkClient(clientId);
+        // Written on an async thread after this method returns, straight from the database cursors
+        StreamingResponseBody body = out -> locationExportService.export(clientId, exportFormat, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("locations-" + clientId + "." + exportFormat.getExtension())
+                .build()
+                .toString())
+            .cacheControl(CacheControl.noStore())
+            .body(body);
+    }
+
+    @PostMapping("/faved/import")
+    public ResponseEntity<StreamingResponseBody> importFavedLocations(
+            @RequestParam UUID clientId,
+            @RequestParam(defaultValue = "csv") String format,
+            InputStream body
+        ) {
+        FavedImportService.Format importFormat = FavedImportService.Format.of(format);
+        favedImportService.checkClient(clientId);
+        // Read and saved on an async thread, reporting progress while the upload is still arriving
+        StreamingResponseBody events = out -> favedImportService.importFavorites(clientId, importFormat, body, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .cacheControl(CacheControl.noStore())
+            .body(events);
+    }
+
     @PutMapping("/faved/{id}/category")
     public ResponseEntity<LocationResponse> assignCategoryToFavedLocation(
             @PathVariable UUID id,
@@ -94,35 +257,67 @@ public class LocationController {
             @RequestParam UUID clientId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt,desc") String sort
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            WebRequest webRequest
         ) {
         Pageable pageable = PageRequest.of(
             page,
             size,
             Sort.by(Sort.Order.desc("createdAt"))
         );
-        Page<LocationResponse> locations = locationService.getFavedLocationsByCategory(categoryId, clientId, pageable);
-        return ResponseEntity.ok(locations);
+        return conditionalGet.respond(webRequest, clientId,
+            () -> locationService.getFavedLocationsByCategory(categoryId, clientId, pageable));
     }
 
     @GetMapping("/weather")
     public ResponseEntity<WeatherResponse> getLocationWeather(
-        @RequestParam String latitude,
-        @RequestParam String longitude
+        @RequestParam BigDecimal latitude,
+        @RequestParam BigDecimal longitude
     ) {
         
         // Fetch weather data from 3rd party API (Open-Meteo)
-        double lat = Double.parseDouble(latitude);
-        double lon = Double.parseDouble(longitude);
-        WeatherData weatherData = weatherService.getWeatherByCoordinates(lat, lon);
+        WeatherResult weatherResult = weatherService.getWeatherByCoordinates(latitude.doubleValue(), longitude.doubleValue());
         
+        // Fresh weather may be reused by the browser until its cache entry expires; stale data and
+        // failures are not stored, so the next request picks up the background refresh
+        Duration maxAge = weatherResult.isStale() || weatherResult.getWeather() == null
+            ? Duration.ZERO
+            : weatherService.getRemainingTtl(latitude.doubleValue(), longitude.doubleValue());
+        CacheControl cacheControl = maxAge.toSeconds() > 0 ? CacheControl.maxAge(maxAge).cachePublic() : CacheControl.noStore();
+
         // Build response (include location data even if weather API fails)
-        WeatherResponse response = WeatherResponse.builder()
-            .latitude(latitude)
-            .longitude(longitude)
-            .weather(weatherData) // Can be null if weather API fails
+        return ResponseEntity.ok()
+            .cacheControl(cacheControl)
+            .body(toWeatherResponse(latitude, longitude, weatherResult));
+    }
+
+    @PostMapping("/weather/batch")
+    public ResponseEntity<WeatherBatchResponse> getLocationWeatherBatch(@RequestBody @Valid WeatherBatchRequest request) {
+        List<WeatherBatchRequest.Coordinate> coordinates = request.getLocations();
+        List<WeatherResult> weatherResults = weatherService.getWeatherByCoordinates(coordinates);
+
+        List<WeatherResponse> results = new ArrayList<>(coordinates.size());
+        for (int i = 0; i < coordinates.size(); i++) {
+            WeatherBatchRequest.Coordinate coordinate = coordinates.get(i);
+            results.add(toWeatherResponse(BigDecimal.valueOf(coordinate.getLatitude()),
+                BigDecimal.valueOf(coordinate.getLongitude()), weatherResults.get(i)));
+        }
+
+        return ResponseEntity.ok(new WeatherBatchResponse(results));
+    }
+
+    // Coordinates are echoed in plain notation like stored ones, e.g. "0.0001" rather than "1.0E-4"
+    private static WeatherResponse toWeatherResponse(BigDecimal latitude, BigDecimal longitude, WeatherResult result) {
+        return WeatherResponse.builder()
+            .latitude(GeoCell.format(latitude))
+            .longitude(GeoCell.format(longitude))
+            .weather(result.getWeather()) // Can be null if weather API fails
+            .stale(result.isStale())
+            .fetchedAt(result.getFetchedAt())
             .build();
-        
-        return ResponseEntity.ok(response);
+    }
+
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
 }
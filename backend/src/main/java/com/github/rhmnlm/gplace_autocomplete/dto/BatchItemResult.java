@@ -0,0 +1,21 @@
+package com.github.rhmnlm.gplace_autocomplete.dto;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BatchItemResult {
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+    private int index; // position of the item in the request
+    private Status status;
+    private UUID id; // null when rejected
+    private String message;
+}
@@ -0,0 +1,14 @@
+package com.github.rhmnlm.gplace_autocomplete.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BatchResponse {
+    private int accepted;
+    private int rejected;
+    private List<BatchItemResult> results;
+}
@@ -0,0 +1,16 @@
+package com.github.rhmnlm.gplace_autocomplete.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+
+    // Pass back as the cursor parameter to fetch the next page, null on the last page
+    private String nextCursor;
+}
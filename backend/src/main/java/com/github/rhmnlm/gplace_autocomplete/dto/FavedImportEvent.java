@@ -0,0 +1,38 @@
+package com.github.rhmnlm.gplace_autocomplete.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One line of a favorites import response. Rejected rows are reported as they are read, counts
+ * after every committed chunk and once more when the import ends.
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FavedImportEvent {
+
+    public enum Type {
+        REJECTED,
+        PROGRESS,
+        COMPLETED,
+        FAILED
+    }
+
+    private Type type;
+    // 1-based data row (CSV, header excluded) or feature (GeoJSON), for REJECTED
+    private Long row;
+    private String message;
+    // Counts so far, for PROGRESS, COMPLETED and FAILED
+    private Long rowsRead;
+    private Long imported;
+    private Long rejected;
+    private Long skipped;
+    private Long categoriesCreated;
+
+    public static FavedImportEvent rejected(long row, String message) {
+        return new FavedImportEvent(Type.REJECTED, row, message, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.rhmnlm.gplace_autocomplete.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.Data;
+
+/**
+ * A GeoJSON Feature as read by the favorites import. Coordinates are left untyped so features
+ * with other geometries than Point still parse and can be rejected one by one.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GeoJsonFeature {
+    private Geometry geometry;
+    private Map<String, Object> properties;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Geometry {
+        private String type;
+        // [longitude, latitude] for a Point
+        private List<Object> coordinates;
+    }
+}
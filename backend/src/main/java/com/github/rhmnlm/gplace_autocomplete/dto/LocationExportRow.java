@@ -0,0 +1,29 @@
+package com.github.rhmnlm.gplace_autocomplete.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One line of a location export. Visited rows have no category.
+ */
+@Data
+@AllArgsConstructor
+public class LocationExportRow {
+    // "visited" or "faved"
+    private String type;
+    private UUID id;
+    private String placeDesc;
+    private String latitude;
+    private String longitude;
+    private UUID categoryId;
+    private String categoryName;
+    private LocalDateTime createdAt;
+
+    public static LocationExportRow of(String type, LocationResponse location) {
+        return new LocationExportRow(type, location.getId(), location.getPlaceDesc(), location.getLatitude(),
+            location.getLongitude(), location.getCategoryId(), location.getCategoryName(), location.getCreatedAt());
+    }
+}
@@ -1,7 +1,10 @@
 package com.github.rhmnlm.gplace_autocomplete.dto;
 
+import java.math.BigDecimal;
 import java.util.UUID;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -14,11 +17,16 @@ public class LocationRequest {
     @NotBlank(message = "placeDesc is required")
     private String placeDesc;
 
-    @NotBlank(message = "latitude is required")
-    private String latitude;
+    // Numeric strings such as "35.6762" are still accepted
+    @NotNull(message = "latitude is required")
+    @DecimalMin(value = "-90", message = "latitude must be between -90 and 90")
+    @DecimalMax(value = "90", message = "latitude must be between -90 and 90")
+    private BigDecimal latitude;
 
-    @NotBlank(message = "longitude is required")
-    private String longitude;
+    @NotNull(message = "longitude is required")
+    @DecimalMin(value = "-180", message = "longitude must be between -180 and 180")
+    @DecimalMax(value = "180", message = "longitude must be between -180 and 180")
+    private BigDecimal longitude;
 
     private UUID categoryId; // optional, for faved locations only
 }
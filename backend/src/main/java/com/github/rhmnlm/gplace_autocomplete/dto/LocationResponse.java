@@ -1,8 +1,11 @@
 package com.github.rhmnlm.gplace_autocomplete.dto;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+import com.github.rhmnlm.gplace_autocomplete.util.GeoCell;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -28,4 +31,16 @@ public class LocationResponse {
                             LocalDateTime createdAt, UUID clientId, UUID categoryId, String categoryName) {
         this(id, placeDesc, latitude, longitude, createdAt, clientId, categoryId, categoryName, null);
     }
+
+    // Used by the repository projections, coordinates come from the fixed-point columns
+    public LocationResponse(UUID id, String placeDesc, BigDecimal latitude, BigDecimal longitude,
+                            LocalDateTime createdAt, UUID clientId) {
+        this(id, placeDesc, GeoCell.format(latitude), GeoCell.format(longitude), createdAt, clientId);
+    }
+
+    public LocationResponse(UUID id, String placeDesc, BigDecimal latitude, BigDecimal longitude,
+                            LocalDateTime createdAt, UUID clientId, UUID categoryId, String categoryName) {
+        this(id, placeDesc, GeoCell.format(latitude), GeoCell.format(longitude), createdAt, clientId,
+            categoryId, categoryName);
+    }
 }
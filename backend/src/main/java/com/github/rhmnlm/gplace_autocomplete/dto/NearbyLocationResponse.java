@@ -0,0 +1,11 @@
+package com.github.rhmnlm.gplace_autocomplete.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class NearbyLocationResponse {
+    private LocationResponse location;
+    private double distanceMeters;
+}
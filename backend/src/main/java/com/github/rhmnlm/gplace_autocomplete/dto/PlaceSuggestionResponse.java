@@ -0,0 +1,18 @@
+package com.github.rhmnlm.gplace_autocomplete.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PlaceSuggestionResponse {
+    private String placeDesc;
+    private String latitude;
+    private String longitude;
+    private long visitCount;
+    private boolean faved;
+    // Latest visit, or when the place was faved if that is later
+    private LocalDateTime lastUsedAt;
+}
@@ -0,0 +1,44 @@
+package com.github.rhmnlm.gplace_autocomplete.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class VisitedLocationBatchRequest {
+
+    @NotNull(message = "clientId is required")
+    private UUID clientId;
+
+    // Items are validated one by one so a bad entry is reported without failing the whole batch
+    @NotEmpty(message = "visits is required")
+    @Size(max = 500, message = "visits must not exceed 500 entries")
+    private List<Visit> visits;
+
+    @Data
+    public static class Visit {
+        @NotBlank(message = "placeDesc is required")
+        private String placeDesc;
+
+        @NotNull(message = "latitude is required")
+        @DecimalMin(value = "-90", message = "latitude must be between -90 and 90")
+        @DecimalMax(value = "90", message = "latitude must be between -90 and 90")
+        private BigDecimal latitude;
+
+        @NotNull(message = "longitude is required")
+        @DecimalMin(value = "-180", message = "longitude must be between -180 and 180")
+        @DecimalMax(value = "180", message = "longitude must be between -180 and 180")
+        private BigDecimal longitude;
+
+        private LocalDateTime visitedAt; // optional, when the visit happened offline; defaults to now
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.rhmnlm.gplace_autocomplete.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.github.rhmnlm.gplace_autocomplete.util.GeoCell;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class VisitedPlaceResponse {
+    private String placeDesc;
+    private String latitude;
+    private String longitude;
+    private long visitCount;
+    private LocalDateTime firstVisitedAt;
+    private LocalDateTime lastVisitedAt;
+
+    // Used by the repository projection, coordinates come from the fixed-point columns
+    public VisitedPlaceResponse(String placeDesc, BigDecimal latitude, BigDecimal longitude, long visitCount,
+                                LocalDateTime firstVisitedAt, LocalDateTime lastVisitedAt) {
+        this(placeDesc, GeoCell.format(latitude), GeoCell.format(longitude), visitCount, firstVisitedAt, lastVisitedAt);
+    }
+}
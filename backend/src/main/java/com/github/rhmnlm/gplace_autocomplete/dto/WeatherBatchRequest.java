@@ -0,0 +1,32 @@
+package com.github.rhmnlm.gplace_autocomplete.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class WeatherBatchRequest {
+
+    @NotEmpty(message = "locations is required")
+    @Size(max = 100, message = "locations must not exceed 100 entries")
+    private List<@Valid @NotNull Coordinate> locations;
+
+    @Data
+    public static class Coordinate {
+        @NotNull(message = "latitude is required")
+        @DecimalMin(value = "-90", message = "latitude must be between -90 and 90")
+        @DecimalMax(value = "90", message = "latitude must be between -90 and 90")
+        private Double latitude;
+
+        @NotNull(message = "longitude is required")
+        @DecimalMin(value = "-180", message = "longitude must be between -180 and 180")
+        @DecimalMax(value = "180", message = "longitude must be between -180 and 180")
+        private Double longitude;
+    }
+}
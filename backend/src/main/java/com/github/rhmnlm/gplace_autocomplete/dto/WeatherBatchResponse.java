@@ -0,0 +1,14 @@
+package com.github.rhmnlm.gplace_autocomplete.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class WeatherBatchResponse {
+
+    // One entry per requested location, in request order
+    private List<WeatherResponse> results;
+}
@@ -1,5 +1,7 @@
 package com.github.rhmnlm.gplace_autocomplete.dto;
 
+import java.time.LocalDateTime;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,4 +15,9 @@ public class WeatherResponse {
     
     // Weather data from 3rd party API
     private WeatherData weather;
+
+    // True when weather is the last known data for the area, served while it is being refreshed
+    private boolean stale;
+    // When stale weather was fetched, null otherwise
+    private LocalDateTime fetchedAt;
 }
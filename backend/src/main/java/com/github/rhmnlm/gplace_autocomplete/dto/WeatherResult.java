@@ -0,0 +1,25 @@
+package com.github.rhmnlm.gplace_autocomplete.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Weather resolved for one location. Stale data is the last known weather for the grid cell,
+ * served past its TTL while a refresh runs in the background.
+ */
+@Data
+@AllArgsConstructor
+public class WeatherResult {
+
+    // Null when the weather API failed and nothing is cached
+    private WeatherData weather;
+    private boolean stale;
+    // Only set for stale data
+    private LocalDateTime fetchedAt;
+
+    public static WeatherResult fresh(WeatherData weather) {
+        return new WeatherResult(weather, false, null);
+    }
+}
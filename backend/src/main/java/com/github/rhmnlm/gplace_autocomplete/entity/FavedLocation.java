@@ -1,21 +1,29 @@
 package com.github.rhmnlm.gplace_autocomplete.entity;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+import org.springframework.data.domain.Persistable;
+
+import com.github.rhmnlm.gplace_autocomplete.util.GeoCell;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.Data;
 
 @Entity
 @Table(name = "faved_location")
 @Data
-public class FavedLocation {
+public class FavedLocation implements Persistable<UUID> {
     @Id
     @Column(name = "id")
     private UUID id;
@@ -23,12 +31,23 @@ public class FavedLocation {
     @Column(name = "place_desc", nullable = false)
     private String placeDesc;
 
+    // Legacy text coordinates, still written because the columns are NOT NULL but no longer read.
+    // Responses and queries use the fixed-point values below
     @Column(name = "latitude", nullable = false)
     private String latitude;
 
     @Column(name = "longitude", nullable = false)
     private String longitude;
 
+    @Column(name = "latitude_value", precision = 9, scale = 6)
+    private BigDecimal latitudeValue;
+
+    @Column(name = "longitude_value", precision = 9, scale = 6)
+    private BigDecimal longitudeValue;
+
+    @Column(name = "geo_cell")
+    private Long geoCell;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -39,4 +58,31 @@ public class FavedLocation {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id_fk", nullable = true)
     private Category category;
+
+    // Ids are assigned by the application, so tell Spring Data when to persist instead of merge.
+    // Without this every save would SELECT the row first and imports could not be batched.
+    @Transient
+    private boolean newEntity = true;
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
+    /**
+     * Sets both the legacy text and the fixed-point coordinates, and the geo cell derived from them
+     */
+    public void setCoordinates(BigDecimal latitude, BigDecimal longitude) {
+        this.latitude = latitude.toPlainString();
+        this.longitude = longitude.toPlainString();
+        this.latitudeValue = GeoCell.toFixedPoint(latitude);
+        this.longitudeValue = GeoCell.toFixedPoint(longitude);
+        this.geoCell = GeoCell.of(latitudeValue, longitudeValue);
+    }
 }
@@ -0,0 +1,68 @@
+package com.github.rhmnlm.gplace_autocomplete.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Data;
+
+/**
+ * Visits aggregated per client and place, maintained on every visit by VisitedPlaceService
+ */
+@Entity
+@Table(name = "visited_place")
+@Data
+public class VisitedPlace implements Persistable<UUID> {
+    @Id
+    @Column(name = "id")
+    private UUID id;
+
+    @Column(name = "place_desc", nullable = false)
+    private String placeDesc;
+
+    @Column(name = "latitude_value", nullable = false, precision = 9, scale = 6)
+    private BigDecimal latitudeValue;
+
+    @Column(name = "longitude_value", nullable = false, precision = 9, scale = 6)
+    private BigDecimal longitudeValue;
+
+    @Column(name = "visit_count", nullable = false)
+    private long visitCount;
+
+    @Column(name = "first_visited_at", nullable = false)
+    private LocalDateTime firstVisitedAt;
+
+    @Column(name = "last_visited_at", nullable = false)
+    private LocalDateTime lastVisitedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "client_id_fk", nullable = false)
+    private Client client;
+
+    // Application-assigned ids, see VisitedLocation
+    @Transient
+    private boolean newEntity = true;
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
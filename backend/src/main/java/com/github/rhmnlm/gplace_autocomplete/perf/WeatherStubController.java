@@ -0,0 +1,95 @@
+package com.github.rhmnlm.gplace_autocomplete.perf;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stand-in for the Open-Meteo forecast API in the perf profile, so load tests run without
+ * network access. Answers the same query shape as the real API (comma-separated coordinates
+ * return an array) after a configurable delay, and fails a configurable fraction of calls.
+ */
+@RestController
+@RequestMapping("/perf/weather-stub")
+@Profile("perf")
+@Slf4j
+public class WeatherStubController {
+
+    private final long latencyMillis;
+    private final long latencyJitterMillis;
+    private final double errorRate;
+
+    public WeatherStubController(
+            @Value("${perf.weather-stub.latency:80ms}") Duration latency,
+            @Value("${perf.weather-stub.latency-jitter:40ms}") Duration latencyJitter,
+            @Value("${perf.weather-stub.error-rate:0.0}") double errorRate) {
+        this.latencyMillis = latency.toMillis();
+        this.latencyJitterMillis = latencyJitter.toMillis();
+        this.errorRate = errorRate;
+        log.info("Weather stub enabled: latency={}ms (+0..{}ms), errorRate={}", latencyMillis, latencyJitterMillis, errorRate);
+    }
+
+    @GetMapping("/forecast")
+    public ResponseEntity<Object> forecast(
+            @RequestParam String latitude,
+            @RequestParam String longitude) throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Thread.sleep(latencyMillis + (latencyJitterMillis > 0 ? random.nextLong(latencyJitterMillis + 1) : 0));
+
+        if (random.nextDouble() < errorRate) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        String[] latitudes = latitude.split(",");
+        String[] longitudes = longitude.split(",");
+        if (latitudes.length != longitudes.length) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (latitudes.length == 1) {
+            return ResponseEntity.ok(location(latitudes[0], longitudes[0], random));
+        }
+
+        List<Map<String, Object>> locations = new ArrayList<>(latitudes.length);
+        for (int i = 0; i < latitudes.length; i++) {
+            locations.add(location(latitudes[i], longitudes[i], random));
+        }
+        return ResponseEntity.ok(locations);
+    }
+
+    private Map<String, Object> location(String latitude, String longitude, ThreadLocalRandom random) {
+        Map<String, Object> current = new LinkedHashMap<>();
+        current.put("time", LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).toString());
+        current.put("interval", 900);
+        current.put("temperature_2m", Math.round(random.nextDouble(-5, 35) * 10) / 10.0);
+        current.put("relative_humidity_2m", random.nextInt(20, 100));
+        current.put("weather_code", random.nextInt(4));
+        current.put("precipitation", 0.0);
+        current.put("is_day", random.nextInt(2));
+        current.put("apparent_temperature", Math.round(random.nextDouble(-8, 40) * 10) / 10.0);
+        current.put("wind_speed_10m", Math.round(random.nextDouble(0, 30) * 10) / 10.0);
+        current.put("wind_direction_10m", random.nextInt(360));
+
+        Map<String, Object> location = new LinkedHashMap<>();
+        location.put("latitude", Double.parseDouble(latitude));
+        location.put("longitude", Double.parseDouble(longitude));
+        location.put("timezone", "GMT");
+        location.put("current", current);
+        return location;
+    }
+}
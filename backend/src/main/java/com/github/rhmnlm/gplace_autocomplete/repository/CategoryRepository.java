@@ -6,14 +6,25 @@ import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.github.rhmnlm.gplace_autocomplete.dto.CategoryResponse;
 import com.github.rhmnlm.gplace_autocomplete.entity.Category;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, UUID> {
 
-    Page<Category> findByClient_ClientId(UUID clientId, Pageable pageable);
+    // Constructor projection for the list endpoint, no entities are loaded
+    @Query(value = "SELECT new com.github.rhmnlm.gplace_autocomplete.dto.CategoryResponse("
+        + "c.id, c.categoryName, c.createdAt, c.updatedAt, c.client.clientId) "
+        + "FROM Category c WHERE c.client.clientId = :clientId",
+        countQuery = "SELECT COUNT(c) FROM Category c WHERE c.client.clientId = :clientId")
+    Page<CategoryResponse> findResponsesByClientId(@Param("clientId") UUID clientId, Pageable pageable);
 
     Optional<Category> findByIdAndClient_ClientId(UUID id, UUID clientId);
+
+    // Compared with the column's collation, case-insensitive on the default SQL Server collation
+    Optional<Category> findByClient_ClientIdAndCategoryName(UUID clientId, String categoryName);
 }
@@ -1,13 +1,27 @@
 package com.github.rhmnlm.gplace_autocomplete.repository;
 
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.github.rhmnlm.gplace_autocomplete.entity.Client;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface ClientRepository extends JpaRepository<Client, UUID> {
     boolean existsByClientId(UUID clientId);
+
+    // Oldest first, so the most recent clients end up as the most recently used cache entries
+    @Query("SELECT c.clientId FROM Client c ORDER BY c.createdAt")
+    Stream<UUID> streamAllClientIds();
+
+    // Row lock held until the transaction ends, used to serialize per-client inserts
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Client> findWithLockByClientId(UUID clientId);
 }
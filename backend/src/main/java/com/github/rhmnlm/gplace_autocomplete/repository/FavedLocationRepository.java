@@ -1,17 +1,114 @@
 package com.github.rhmnlm.gplace_autocomplete.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse;
 import com.github.rhmnlm.gplace_autocomplete.entity.FavedLocation;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface FavedLocationRepository extends JpaRepository<FavedLocation, UUID> {
-    Page<FavedLocation> findByClient_ClientId(UUID clientId, Pageable pageable);
+    // Constructor projection used by the list endpoints: selects only the response columns with the
+    // category name from a left join, nothing is hydrated into the persistence context
+    String SELECT_RESPONSE = "SELECT new com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse("
+        + "f.id, f.placeDesc, f.latitudeValue, f.longitudeValue, f.createdAt, f.client.clientId, c.id, c.categoryName) "
+        + "FROM FavedLocation f LEFT JOIN f.category c ";
+
+    // Category assignment: loads the current category in the same statement, since the response
+    // reads its name when the requested category is not found
+    @EntityGraph(attributePaths = "category")
+    Optional<FavedLocation> findWithCategoryById(UUID id);
+
+    @Query(value = SELECT_RESPONSE + "WHERE f.client.clientId = :clientId",
+        countQuery = "SELECT COUNT(f) FROM FavedLocation f WHERE f.client.clientId = :clientId")
+    Page<LocationResponse> findResponsesByClientId(@Param("clientId") UUID clientId, Pageable pageable);
+
+    @Query(value = SELECT_RESPONSE + "WHERE c.id = :categoryId AND f.client.clientId = :clientId",
+        countQuery = "SELECT COUNT(f) FROM FavedLocation f WHERE f.category.id = :categoryId AND f.client.clientId = :clientId")
+    Page<LocationResponse> findResponsesByCategoryIdAndClientId(
+        @Param("categoryId") UUID categoryId,
+        @Param("clientId") UUID clientId,
+        Pageable pageable);
+
+    // Keyset pagination: returns List so no count query is issued, pageable only limits the rows
+    @Query(SELECT_RESPONSE + "WHERE f.client.clientId = :clientId "
+        + "ORDER BY f.createdAt DESC, f.id DESC")
+    List<LocationResponse> findFirstKeysetPage(@Param("clientId") UUID clientId, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE f.client.clientId = :clientId "
+        + "AND (f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id)) "
+        + "ORDER BY f.createdAt DESC, f.id DESC")
+    List<LocationResponse> findKeysetPageAfter(
+        @Param("clientId") UUID clientId,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") UUID id,
+        Pageable pageable);
+
+    // Proximity prefilters: both only return candidates, exact distance is checked by the caller
+    @Query("SELECT f FROM FavedLocation f LEFT JOIN FETCH f.category WHERE f.client.clientId = :clientId "
+        + "AND f.geoCell IN :geoCells "
+        + "AND f.latitudeValue BETWEEN :minLat AND :maxLat AND f.longitudeValue BETWEEN :minLon AND :maxLon")
+    List<FavedLocation> findInGeoCells(
+        @Param("clientId") UUID clientId,
+        @Param("geoCells") Collection<Long> geoCells,
+        @Param("minLat") BigDecimal minLat,
+        @Param("maxLat") BigDecimal maxLat,
+        @Param("minLon") BigDecimal minLon,
+        @Param("maxLon") BigDecimal maxLon);
+
+    @Query("SELECT f FROM FavedLocation f LEFT JOIN FETCH f.category WHERE f.client.clientId = :clientId "
+        + "AND f.latitudeValue BETWEEN :minLat AND :maxLat AND f.longitudeValue BETWEEN :minLon AND :maxLon")
+    List<FavedLocation> findInBoundingBox(
+        @Param("clientId") UUID clientId,
+        @Param("minLat") BigDecimal minLat,
+        @Param("maxLat") BigDecimal maxLat,
+        @Param("minLon") BigDecimal minLon,
+        @Param("maxLon") BigDecimal maxLon);
+
+    // Distinct coordinates of the given clients' favorites, as [latitude, longitude] pairs. Mapped to
+    // weather grid cells by the caller with GridCell, the same way foreground requests are.
+    // Deduplicated by the database and capped by the pageable, covered by IX_faved_location_client_geo_cell.
+    @Query("SELECT DISTINCT f.latitudeValue, f.longitudeValue FROM FavedLocation f "
+        + "WHERE f.client.clientId IN :clientIds AND f.latitudeValue IS NOT NULL AND f.longitudeValue IS NOT NULL")
+    List<Object[]> findCoordinatesByClientIds(
+        @Param("clientIds") Collection<UUID> clientIds,
+        Pageable pageable);
+
+    // Export: a forward-only cursor fetching rows in chunks of the fetch size, oldest first.
+    // Must be consumed inside a transaction and closed.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_RESPONSE + "WHERE f.client.clientId = :clientId ORDER BY f.createdAt, f.id")
+    Stream<LocationResponse> streamResponsesByClientId(@Param("clientId") UUID clientId);
+
+    // Hydrates a page of search results, in no particular order
+    @Query(SELECT_RESPONSE + "WHERE f.client.clientId = :clientId AND f.id IN :ids")
+    List<LocationResponse> findResponsesByClientIdAndIdIn(@Param("clientId") UUID clientId, @Param("ids") Collection<UUID> ids);
 
-    Page<FavedLocation> findByCategory_IdAndClient_ClientId(UUID categoryId, UUID clientId, Pageable pageable);
+    // Search for clients too large for the in-memory index: a scan of the client's favorites,
+    // pattern is a LIKE pattern escaped with '!'
+    @Query(value = SELECT_RESPONSE + "WHERE f.client.clientId = :clientId "
+            + "AND (f.placeDesc LIKE :pattern ESCAPE '!' OR c.categoryName LIKE :pattern ESCAPE '!')",
+        countQuery = "SELECT COUNT(f) FROM FavedLocation f LEFT JOIN f.category c WHERE f.client.clientId = :clientId "
+            + "AND (f.placeDesc LIKE :pattern ESCAPE '!' OR c.categoryName LIKE :pattern ESCAPE '!')")
+    Page<LocationResponse> searchResponsesByClientId(
+        @Param("clientId") UUID clientId,
+        @Param("pattern") String pattern,
+        Pageable pageable);
 }
@@ -1,15 +1,67 @@
 package com.github.rhmnlm.gplace_autocomplete.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse;
 import com.github.rhmnlm.gplace_autocomplete.entity.VisitedLocation;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface VisitedLocationRepository extends JpaRepository<VisitedLocation, UUID> {
-    Page<VisitedLocation> findByClient_ClientId(UUID clientId, Pageable pageable);
+    // Constructor projection used by the list endpoints: selects only the response columns,
+    // nothing is hydrated into the persistence context. The client id is read from the FK column.
+    String SELECT_RESPONSE = "SELECT new com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse("
+        + "v.id, v.placeDesc, v.latitudeValue, v.longitudeValue, v.createdAt, v.client.clientId) FROM VisitedLocation v ";
+
+    @Query(value = SELECT_RESPONSE + "WHERE v.client.clientId = :clientId",
+        countQuery = "SELECT COUNT(v) FROM VisitedLocation v WHERE v.client.clientId = :clientId")
+    Page<LocationResponse> findResponsesByClientId(@Param("clientId") UUID clientId, Pageable pageable);
+
+    // Keyset pagination: returns List so no count query is issued, pageable only limits the rows
+    @Query(SELECT_RESPONSE + "WHERE v.client.clientId = :clientId "
+        + "ORDER BY v.createdAt DESC, v.id DESC")
+    List<LocationResponse> findFirstKeysetPage(@Param("clientId") UUID clientId, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE v.client.clientId = :clientId "
+        + "AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) "
+        + "ORDER BY v.createdAt DESC, v.id DESC")
+    List<LocationResponse> findKeysetPageAfter(
+        @Param("clientId") UUID clientId,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") UUID id,
+        Pageable pageable);
+
+    // Visits strictly older than the given one in keyset order, for a total that excludes anything
+    // committed after the page above it was read
+    @Query("SELECT COUNT(v) FROM VisitedLocation v WHERE v.client.clientId = :clientId "
+        + "AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id))")
+    long countOlderThan(
+        @Param("clientId") UUID clientId,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") UUID id);
+
+    // Export: a forward-only cursor fetching rows in chunks of the fetch size, oldest first.
+    // Must be consumed inside a transaction and closed.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_RESPONSE + "WHERE v.client.clientId = :clientId ORDER BY v.createdAt, v.id")
+    Stream<LocationResponse> streamResponsesByClientId(@Param("clientId") UUID clientId);
+
+    // Deletes at most batchSize visits per call to keep each transaction's locks and log small
+    @Modifying
+    @Query(value = "DELETE TOP (:batchSize) FROM visited_location WHERE created_at < :cutoff", nativeQuery = true)
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
 }
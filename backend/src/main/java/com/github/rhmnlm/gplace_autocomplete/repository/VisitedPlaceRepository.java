@@ -0,0 +1,47 @@
+package com.github.rhmnlm.gplace_autocomplete.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.github.rhmnlm.gplace_autocomplete.dto.VisitedPlaceResponse;
+import com.github.rhmnlm.gplace_autocomplete.entity.VisitedPlace;
+
+@Repository
+public interface VisitedPlaceRepository extends JpaRepository<VisitedPlace, UUID> {
+
+    /**
+     * Adds visits to an existing place in a single UPDATE, keeping the earliest first and latest last visit
+     *
+     * @return the number of rows updated, 0 if the client has not visited this place yet
+     */
+    @Modifying
+    @Query("UPDATE VisitedPlace p SET p.visitCount = p.visitCount + :visits, "
+        + "p.firstVisitedAt = CASE WHEN :firstVisitedAt < p.firstVisitedAt THEN :firstVisitedAt ELSE p.firstVisitedAt END, "
+        + "p.lastVisitedAt = CASE WHEN :lastVisitedAt > p.lastVisitedAt THEN :lastVisitedAt ELSE p.lastVisitedAt END "
+        + "WHERE p.client.clientId = :clientId AND p.placeDesc = :placeDesc "
+        + "AND p.latitudeValue = :latitude AND p.longitudeValue = :longitude")
+    int addVisits(
+        @Param("clientId") UUID clientId,
+        @Param("placeDesc") String placeDesc,
+        @Param("latitude") BigDecimal latitude,
+        @Param("longitude") BigDecimal longitude,
+        @Param("visits") long visits,
+        @Param("firstVisitedAt") LocalDateTime firstVisitedAt,
+        @Param("lastVisitedAt") LocalDateTime lastVisitedAt);
+
+    // Most visited first, pageable only limits the rows
+    @Query("SELECT new com.github.rhmnlm.gplace_autocomplete.dto.VisitedPlaceResponse("
+        + "p.placeDesc, p.latitudeValue, p.longitudeValue, p.visitCount, p.firstVisitedAt, p.lastVisitedAt) "
+        + "FROM VisitedPlace p WHERE p.client.clientId = :clientId "
+        + "ORDER BY p.visitCount DESC, p.lastVisitedAt DESC")
+    List<VisitedPlaceResponse> findTopPlaces(@Param("clientId") UUID clientId, Pageable pageable);
+}
@@ -1,20 +1,24 @@
 package com.github.rhmnlm.gplace_autocomplete.service;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.github.rhmnlm.gplace_autocomplete.cache.ClientVersionCache;
+import com.github.rhmnlm.gplace_autocomplete.cache.FavedSearchIndex;
 import com.github.rhmnlm.gplace_autocomplete.dto.CategoryRequest;
 import com.github.rhmnlm.gplace_autocomplete.dto.CategoryResponse;
 import com.github.rhmnlm.gplace_autocomplete.dto.CategoryUpdateRequest;
 import com.github.rhmnlm.gplace_autocomplete.entity.Category;
 import com.github.rhmnlm.gplace_autocomplete.entity.Client;
 import com.github.rhmnlm.gplace_autocomplete.repository.CategoryRepository;
-import com.github.rhmnlm.gplace_autocomplete.repository.ClientRepository;
 import com.github.rhmnlm.gplace_autocomplete.util.UuidUtil;
 
 import lombok.RequiredArgsConstructor;
@@ -26,12 +30,13 @@ import lombok.extern.slf4j.Slf4j;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
-    private final ClientRepository clientRepository;
+    private final ClientService clientService;
+    private final FavedSearchIndex favedSearchIndex;
+    private final ClientVersionCache clientVersionCache;
 
     @Transactional
     public CategoryResponse createCategory(CategoryRequest request) {
-        Client client = clientRepository.findById(request.getClientId())
-            .orElseThrow(() -> new IllegalArgumentException("Client not found: " + request.getClientId()));
+        Client client = clientService.getClientReference(request.getClientId());
 
         LocalDateTime now = LocalDateTime.now();
 
@@ -45,6 +50,13 @@ public class CategoryService {
         Category saved = categoryRepository.save(category);
         log.info("Created category {} for client {}", saved.getId(), request.getClientId());
 
+        UUID clientId = request.getClientId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                clientVersionCache.increment(clientId);
+            }
+        });
         return toCategoryResponse(saved);
     }
 
@@ -54,19 +66,29 @@ public class CategoryService {
             .orElseThrow(() -> new IllegalArgumentException(
                 "Category not found: " + categoryId + " for client: " + clientId));
 
+        boolean renamed = !Objects.equals(category.getCategoryName(), request.getCategoryName());
         category.setCategoryName(request.getCategoryName());
         category.setUpdatedAt(LocalDateTime.now());
 
         Category saved = categoryRepository.save(category);
         log.info("Updated category {} for client {}", saved.getId(), clientId);
 
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                clientVersionCache.increment(clientId);
+                if (renamed) {
+                    // Favorites are searchable by category name; reindex the client on its next search
+                    favedSearchIndex.evict(clientId);
+                }
+            }
+        });
         return toCategoryResponse(saved);
     }
 
     @Transactional(readOnly = true)
     public Page<CategoryResponse> getCategories(UUID clientId, Pageable pageable) {
-        Page<Category> categories = categoryRepository.findByClient_ClientId(clientId, pageable);
-        return categories.map(this::toCategoryResponse);
+        return categoryRepository.findResponsesByClientId(clientId, pageable);
     }
 
     @Transactional(readOnly = true)
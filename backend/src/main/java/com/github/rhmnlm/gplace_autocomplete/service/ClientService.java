@@ -2,10 +2,17 @@ package com.github.rhmnlm.gplace_autocomplete.service;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.github.rhmnlm.gplace_autocomplete.cache.ClientIdCache;
 import com.github.rhmnlm.gplace_autocomplete.entity.Client;
 import com.github.rhmnlm.gplace_autocomplete.repository.ClientRepository;
 import com.github.rhmnlm.gplace_autocomplete.util.UuidUtil;
@@ -19,11 +26,14 @@ import lombok.extern.slf4j.Slf4j;
 public class ClientService {
     
     private final ClientRepository clientRepository;
+    private final ClientIdCache clientIdCache;
+    private final WeatherPrefetcher weatherPrefetcher;
     
     @Transactional
     public UUID identifyOrCreateClient(UUID clientId) {
-        if (clientId != null && clientRepository.existsByClientId(clientId)) {
+        if (clientId != null && clientExists(clientId)) {
             log.debug("Client {} already exists", clientId);
+            weatherPrefetcher.recordActivity(clientId);
             return clientId;
         }
         
@@ -35,12 +45,61 @@ public class ClientService {
         
         clientRepository.save(client);
         log.info("Created new client with ID: {}", newClientId);
+
+        // Only cache once the row is visible to other transactions
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                clientIdCache.add(newClientId);
+            }
+        });
         
         return newClientId;
     }
     
     @Transactional(readOnly = true)
     public boolean clientExists(UUID clientId) {
-        return clientRepository.existsByClientId(clientId);
+        if (clientIdCache.isKnown(clientId)) {
+            return true;
+        }
+        if (clientIdCache.isDefinitelyUnknown(clientId)) {
+            return false;
+        }
+        boolean exists = clientRepository.existsByClientId(clientId);
+        if (exists) {
+            clientIdCache.add(clientId);
+        } else {
+            clientIdCache.addUnknown(clientId);
+        }
+        return exists;
+    }
+
+    /**
+     * Returns an uninitialized reference to an existing client for use in associations,
+     * so write paths do not load the client row
+     */
+    @Transactional(readOnly = true)
+    public Client getClientReference(UUID clientId) {
+        if (!clientExists(clientId)) {
+            throw new IllegalArgumentException("Client not found: " + clientId);
+        }
+        return clientRepository.getReferenceById(clientId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmClientIdCache() {
+        if (!clientIdCache.isTrustingNegatives()) {
+            return;
+        }
+        LongAdder count = new LongAdder();
+        try (Stream<UUID> clientIds = clientRepository.streamAllClientIds()) {
+            clientIds.forEach(clientId -> {
+                clientIdCache.add(clientId);
+                count.increment();
+            });
+        }
+        clientIdCache.markWarmed();
+        log.info("Loaded {} client ids into the client id cache", count.sum());
     }
 }
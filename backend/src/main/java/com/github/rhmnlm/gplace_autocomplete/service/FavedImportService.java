@@ -0,0 +1,554 @@
+package com.github.rhmnlm.gplace_autocomplete.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.rhmnlm.gplace_autocomplete.cache.ClientVersionCache;
+import com.github.rhmnlm.gplace_autocomplete.cache.FavedSearchIndex;
+import com.github.rhmnlm.gplace_autocomplete.cache.PlaceSuggestionIndex;
+import com.github.rhmnlm.gplace_autocomplete.dto.FavedImportEvent;
+import com.github.rhmnlm.gplace_autocomplete.dto.GeoJsonFeature;
+import com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse;
+import com.github.rhmnlm.gplace_autocomplete.entity.Category;
+import com.github.rhmnlm.gplace_autocomplete.entity.Client;
+import com.github.rhmnlm.gplace_autocomplete.entity.FavedLocation;
+import com.github.rhmnlm.gplace_autocomplete.repository.CategoryRepository;
+import com.github.rhmnlm.gplace_autocomplete.repository.FavedLocationRepository;
+import com.github.rhmnlm.gplace_autocomplete.util.CsvReader;
+import com.github.rhmnlm.gplace_autocomplete.util.UuidUtil;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Bulk import of favorites from CSV or GeoJSON. The upload is parsed one row at a time and saved
+ * in chunks of {@code chunk-size} rows, each in its own transaction and inserted through JDBC
+ * batching, so memory use does not grow with the file. Category names are resolved to the
+ * client's categories, created when missing, with one lookup per distinct name. Missing categories
+ * are created in their own transaction before the chunk, so they stay when a chunk fails, and a
+ * name created at the same time by another request is read back instead of failing the import.
+ *
+ * <p>Results are written back as NDJSON {@link FavedImportEvent}s while the upload is read:
+ * rejected rows as they are found, counts after each chunk. Chunks are committed as they go, so
+ * an import that fails part way keeps the rows saved before the failure.
+ */
+@Service
+@Slf4j
+public class FavedImportService {
+
+    private static final int MAX_CSV_RECORD_CHARS = 64 * 1024;
+    private static final int MAX_PLACE_DESC_LENGTH = 255;
+    private static final int MAX_CATEGORY_NAME_LENGTH = 100;
+    // Distinct category names remembered per import, beyond that they are looked up again
+    private static final int MAX_CACHED_CATEGORIES = 1000;
+
+    private final FavedLocationRepository favedLocationRepository;
+    private final CategoryRepository categoryRepository;
+    private final ClientService clientService;
+    private final EntityManager entityManager;
+    private final JsonMapper jsonMapper;
+    // Reads one feature at a time from the features array, the following features are not trailing garbage
+    private final ObjectReader featureReader;
+    private final PlaceSuggestionIndex placeSuggestionIndex;
+    private final FavedSearchIndex favedSearchIndex;
+    private final ClientVersionCache clientVersionCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder importedRows = new LongAdder();
+    private final LongAdder rejectedRows = new LongAdder();
+
+    public FavedImportService(
+            FavedLocationRepository favedLocationRepository,
+            CategoryRepository categoryRepository,
+            ClientService clientService,
+            EntityManager entityManager,
+            JsonMapper jsonMapper,
+            PlaceSuggestionIndex placeSuggestionIndex,
+            FavedSearchIndex favedSearchIndex,
+            ClientVersionCache clientVersionCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${locations.faved.import.chunk-size:500}") int chunkSize) {
+        this.favedLocationRepository = favedLocationRepository;
+        this.categoryRepository = categoryRepository;
+        this.clientService = clientService;
+        this.entityManager = entityManager;
+        this.jsonMapper = jsonMapper;
+        this.featureReader = jsonMapper.readerFor(GeoJsonFeature.class)
+            .without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+        this.placeSuggestionIndex = placeSuggestionIndex;
+        this.favedSearchIndex = favedSearchIndex;
+        this.clientVersionCache = clientVersionCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public enum Format {
+        CSV,
+        GEOJSON;
+
+        public static Format of(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported import format: " + name + ", expected csv or geojson");
+            }
+        }
+    }
+
+    /**
+     * Fails before the response starts streaming, so an unknown client is a plain error response
+     */
+    public void checkClient(UUID clientId) {
+        if (!clientService.clientExists(clientId)) {
+            throw new IllegalArgumentException("Client not found: " + clientId);
+        }
+    }
+
+    /**
+     * Reads favorites from the upload and writes progress events to the response until the upload
+     * ends or a fatal error (malformed file, failed chunk) stops the import
+     */
+    public void importFavorites(UUID clientId, Format format, InputStream in, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        Progress progress = new Progress();
+        // Access-ordered, so the least recently used name is dropped first
+        Map<String, CategoryRef> categories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CategoryRef> eldest) {
+                return size() > MAX_CACHED_CATEGORIES;
+            }
+        };
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+
+        try (RowReader rows = format == Format.CSV ? new CsvRowReader(in) : new GeoJsonRowReader(in)) {
+            RawRow raw;
+            while ((raw = rows.next()) != null) {
+                progress.rowsRead++;
+                if (raw.skipped()) {
+                    progress.skipped++;
+                    continue;
+                }
+                ImportRow row;
+                try {
+                    row = toImportRow(raw);
+                } catch (IllegalArgumentException e) {
+                    progress.rejected++;
+                    rejectedRows.increment();
+                    write(writer, FavedImportEvent.rejected(raw.number(), e.getMessage()));
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    saveChunk(clientId, chunk, categories, progress);
+                    chunk.clear();
+                    write(writer, progress.event(FavedImportEvent.Type.PROGRESS, null));
+                    writer.flush();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                saveChunk(clientId, chunk, categories, progress);
+            }
+            write(writer, progress.event(FavedImportEvent.Type.COMPLETED, null));
+            writer.flush();
+            completed.increment();
+            log.info("Imported {} of {} favorites for client {} ({} rejected, {} skipped, {} categories created) in {} ms",
+                progress.imported, progress.rowsRead, clientId, progress.rejected, progress.skipped,
+                progress.categoriesCreated, (System.nanoTime() - start) / 1_000_000);
+        } catch (IllegalArgumentException | JacksonException | ChunkFailedException e) {
+            // The file or the database gave out part way; what was committed stays
+            failed.increment();
+            log.warn("Favorites import for client {} stopped after {} rows: {}", clientId, progress.rowsRead, e.getMessage());
+            write(writer, progress.event(FavedImportEvent.Type.FAILED, e.getMessage()));
+            writer.flush();
+        } catch (IOException e) {
+            // The caller went away, there is no one left to report to
+            failed.increment();
+            log.warn("Favorites import for client {} aborted after {} rows: {}", clientId, progress.rowsRead, e.getMessage());
+            throw e;
+        }
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getImportedRowCount() {
+        return importedRows.sum();
+    }
+
+    public long getRejectedRowCount() {
+        return rejectedRows.sum();
+    }
+
+    private void saveChunk(UUID clientId, List<ImportRow> rows, Map<String, CategoryRef> categories, Progress progress) {
+        Map<String, CategoryRef> chunkCategories = new HashMap<>();
+        List<LocationResponse> saved;
+        try {
+            for (ImportRow row : rows) {
+                if (row.categoryName() != null && !chunkCategories.containsKey(row.categoryName())) {
+                    chunkCategories.put(row.categoryName(), resolveCategory(clientId, row.categoryName(), categories, progress));
+                }
+            }
+            saved = transactionTemplate.execute(status -> {
+                Client client = clientService.getClientReference(clientId);
+                LocalDateTime now = LocalDateTime.now();
+                List<FavedLocation> locations = new ArrayList<>(rows.size());
+                List<LocationResponse> responses = new ArrayList<>(rows.size());
+                for (ImportRow row : rows) {
+                    CategoryRef category = row.categoryName() != null ? chunkCategories.get(row.categoryName()) : null;
+
+                    FavedLocation location = new FavedLocation();
+                    location.setId(UuidUtil.generateUuidV7());
+                    location.setPlaceDesc(row.placeDesc());
+                    location.setCoordinates(row.latitude(), row.longitude());
+                    location.setCreatedAt(row.createdAt() != null ? row.createdAt() : now);
+                    location.setClient(client);
+                    if (category != null) {
+                        location.setCategory(categoryRepository.getReferenceById(category.id()));
+                    }
+                    locations.add(location);
+                    responses.add(new LocationResponse(location.getId(), location.getPlaceDesc(), location.getLatitudeValue(),
+                        location.getLongitudeValue(), location.getCreatedAt(), clientId,
+                        category != null ? category.id() : null, category != null ? category.name() : null));
+                }
+                favedLocationRepository.saveAll(locations);
+                // The request may keep one persistence context open for the whole import
+                entityManager.flush();
+                entityManager.clear();
+                return responses;
+            });
+        } catch (RuntimeException e) {
+            throw new ChunkFailedException("Saving rows " + rows.get(0).number() + " to " + rows.get(rows.size() - 1).number()
+                + " failed, they and later rows were not imported: " + e.getMessage(), e);
+        }
+
+        progress.imported += saved.size();
+        importedRows.add(saved.size());
+        for (LocationResponse location : saved) {
+            placeSuggestionIndex.addFaved(clientId, location);
+            favedSearchIndex.put(clientId, location);
+        }
+        clientVersionCache.increment(clientId);
+    }
+
+    private CategoryRef resolveCategory(UUID clientId, String name, Map<String, CategoryRef> categories, Progress progress) {
+        CategoryRef cached = categories.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        Category category = categoryRepository.findByClient_ClientIdAndCategoryName(clientId, name).orElse(null);
+        if (category == null) {
+            try {
+                category = transactionTemplate.execute(status -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    Category created = new Category();
+                    created.setId(UuidUtil.generateUuidV7());
+                    created.setCategoryName(name);
+                    created.setCreatedAt(now);
+                    created.setUpdatedAt(now);
+                    created.setClient(clientService.getClientReference(clientId));
+                    // Flushed here so a duplicate name fails this transaction, not the chunk
+                    return categoryRepository.saveAndFlush(created);
+                });
+                progress.categoriesCreated++;
+            } catch (DataIntegrityViolationException e) {
+                // Another import or request created the name since the lookup (UQ_category_name_per_client)
+                category = transactionTemplate.execute(status ->
+                    categoryRepository.findByClient_ClientIdAndCategoryName(clientId, name)).orElseThrow(() -> e);
+            }
+        }
+        CategoryRef ref = new CategoryRef(category.getId(), category.getCategoryName());
+        categories.put(name, ref);
+        return ref;
+    }
+
+    // Same rules as saving a single favorite, plus the column lengths
+    private static ImportRow toImportRow(RawRow raw) {
+        if (raw.error() != null) {
+            throw new IllegalArgumentException(raw.error());
+        }
+        String placeDesc = trimToNull(raw.placeDesc());
+        if (placeDesc == null) {
+            throw new IllegalArgumentException("placeDesc is required");
+        }
+        if (placeDesc.length() > MAX_PLACE_DESC_LENGTH) {
+            throw new IllegalArgumentException("placeDesc must be at most " + MAX_PLACE_DESC_LENGTH + " characters");
+        }
+        BigDecimal latitude = parseCoordinate(raw.latitude(), "latitude", 90);
+        BigDecimal longitude = parseCoordinate(raw.longitude(), "longitude", 180);
+        String categoryName = trimToNull(raw.categoryName());
+        if (categoryName != null && categoryName.length() > MAX_CATEGORY_NAME_LENGTH) {
+            throw new IllegalArgumentException("categoryName must be at most " + MAX_CATEGORY_NAME_LENGTH + " characters");
+        }
+        LocalDateTime createdAt = null;
+        String createdAtText = trimToNull(raw.createdAt());
+        if (createdAtText != null) {
+            try {
+                createdAt = LocalDateTime.parse(createdAtText);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("createdAt must be an ISO-8601 date-time such as 2025-01-15T10:30:00");
+            }
+        }
+        return new ImportRow(raw.number(), placeDesc, latitude, longitude, categoryName, createdAt);
+    }
+
+    private static BigDecimal parseCoordinate(String text, String name, int limit) {
+        String trimmed = trimToNull(text);
+        if (trimmed == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        BigDecimal value;
+        try {
+            value = new BigDecimal(trimmed);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+        if (value.abs().compareTo(BigDecimal.valueOf(limit)) > 0) {
+            throw new IllegalArgumentException(name + " must be between -" + limit + " and " + limit);
+        }
+        return value;
+    }
+
+    private static String trimToNull(String text) {
+        if (text == null) {
+            return null;
+        }
+        String trimmed = text.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private void write(Writer writer, FavedImportEvent event) throws IOException {
+        writer.write(jsonMapper.writeValueAsString(event));
+        writer.write('\n');
+    }
+
+    // A row as read from the file, before validation. Skipped rows are valid but not favorites.
+    private record RawRow(long number, String placeDesc, String latitude, String longitude,
+                          String categoryName, String createdAt, boolean skipped, String error) {
+
+        static RawRow rejected(long number, String error) {
+            return new RawRow(number, null, null, null, null, null, false, error);
+        }
+    }
+
+    private record ImportRow(long number, String placeDesc, BigDecimal latitude, BigDecimal longitude,
+                             String categoryName, LocalDateTime createdAt) {
+    }
+
+    private record CategoryRef(UUID id, String name) {
+    }
+
+    private interface RowReader extends Closeable {
+        // Null at the end of the upload
+        RawRow next() throws IOException;
+    }
+
+    /**
+     * CSV with a header row naming the columns, in any order: place_desc (or name), latitude (or
+     * lat), longitude (or lon, lng), and optionally category_name (or category) and created_at.
+     * Files from the location export are accepted as they are: rows whose type column is not
+     * "faved" are skipped.
+     */
+    private static final class CsvRowReader implements RowReader {
+
+        private final CsvReader csv;
+        private final InputStream in;
+        private final int type;
+        private final int placeDesc;
+        private final int latitude;
+        private final int longitude;
+        private final int categoryName;
+        private final int createdAt;
+        private long number;
+
+        CsvRowReader(InputStream in) throws IOException {
+            this.in = in;
+            this.csv = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), MAX_CSV_RECORD_CHARS);
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("The CSV file is empty");
+            }
+            List<String> columns = header.stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT).replace(" ", "_"))
+                .toList();
+            type = indexOf(columns, "type");
+            placeDesc = indexOf(columns, "place_desc", "placedesc", "name");
+            latitude = indexOf(columns, "latitude", "lat");
+            longitude = indexOf(columns, "longitude", "lon", "lng");
+            categoryName = indexOf(columns, "category_name", "categoryname", "category");
+            createdAt = indexOf(columns, "created_at", "createdat");
+            if (placeDesc < 0 || latitude < 0 || longitude < 0) {
+                throw new IllegalArgumentException("The CSV header must name place_desc, latitude and longitude columns");
+            }
+        }
+
+        @Override
+        public RawRow next() throws IOException {
+            List<String> record;
+            do {
+                record = csv.readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).isBlank());
+            number++;
+            String rowType = field(record, type);
+            boolean skipped = rowType != null && !rowType.isBlank() && !rowType.trim().equalsIgnoreCase("faved");
+            return new RawRow(number, field(record, placeDesc), field(record, latitude), field(record, longitude),
+                field(record, categoryName), field(record, createdAt), skipped, null);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private static int indexOf(List<String> columns, String... names) {
+            for (String name : names) {
+                int index = columns.indexOf(name);
+                if (index >= 0) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        private static String field(List<String> record, int index) {
+            return index >= 0 && index < record.size() ? record.get(index) : null;
+        }
+    }
+
+    /**
+     * A GeoJSON FeatureCollection of Point features. The place description is read from the
+     * name (or placeDesc, title) property, the category from category (or categoryName) and the
+     * creation time from createdAt. Only the current feature is held in memory.
+     */
+    private final class GeoJsonRowReader implements RowReader {
+
+        private final JsonParser parser;
+        private long number;
+
+        GeoJsonRowReader(InputStream in) {
+            this.parser = jsonMapper.createParser(in);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("The GeoJSON must be a FeatureCollection object");
+            }
+            // Move to the features array, skipping the members before it
+            while (true) {
+                JsonToken token = parser.nextToken();
+                if (token == null || token == JsonToken.END_OBJECT) {
+                    throw new IllegalArgumentException("The GeoJSON FeatureCollection has no features array");
+                }
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("features".equals(name)) {
+                    if (value != JsonToken.START_ARRAY) {
+                        throw new IllegalArgumentException("The GeoJSON features member must be an array");
+                    }
+                    break;
+                }
+                parser.skipChildren();
+            }
+        }
+
+        @Override
+        public RawRow next() {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            number++;
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return RawRow.rejected(number, "Feature must be an object");
+            }
+            GeoJsonFeature feature = featureReader.readValue(parser);
+            GeoJsonFeature.Geometry geometry = feature.getGeometry();
+            if (geometry == null || !"Point".equals(geometry.getType())
+                    || geometry.getCoordinates() == null || geometry.getCoordinates().size() < 2) {
+                return RawRow.rejected(number, "Only Point geometries with [longitude, latitude] coordinates are supported");
+            }
+            Map<String, Object> properties = feature.getProperties() != null ? feature.getProperties() : Map.of();
+            return new RawRow(number,
+                property(properties, "name", "placeDesc", "title"),
+                String.valueOf(geometry.getCoordinates().get(1)),
+                String.valueOf(geometry.getCoordinates().get(0)),
+                property(properties, "category", "categoryName"),
+                property(properties, "createdAt"),
+                false,
+                null);
+        }
+
+        @Override
+        public void close() {
+            parser.close();
+        }
+
+        private static String property(Map<String, Object> properties, String... names) {
+            for (String name : names) {
+                Object value = properties.get(name);
+                if (value != null) {
+                    return value.toString();
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Progress {
+        long rowsRead;
+        long imported;
+        long rejected;
+        long skipped;
+        long categoriesCreated;
+
+        FavedImportEvent event(FavedImportEvent.Type type, String message) {
+            return new FavedImportEvent(type, null, message, rowsRead, imported, rejected, skipped, categoriesCreated);
+        }
+    }
+
+    private static final class ChunkFailedException extends RuntimeException {
+        ChunkFailedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.rhmnlm.gplace_autocomplete.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.rhmnlm.gplace_autocomplete.dto.LocationExportRow;
+import com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse;
+import com.github.rhmnlm.gplace_autocomplete.repository.FavedLocationRepository;
+import com.github.rhmnlm.gplace_autocomplete.repository.VisitedLocationRepository;
+import com.github.rhmnlm.gplace_autocomplete.util.CsvWriter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Full dumps of a client's visited and faved locations. Rows are read through forward-only
+ * cursors and written as they arrive, so memory use stays the same whatever the size of the
+ * client's history. They are constructor projections, nothing enters the persistence context.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LocationExportService {
+
+    public static final String[] CSV_HEADER = {
+        "type", "id", "place_desc", "latitude", "longitude", "category_id", "category_name", "created_at"
+    };
+
+    private static final int BUFFER_CHARS = 64 * 1024;
+
+    private final VisitedLocationRepository visitedLocationRepository;
+    private final FavedLocationRepository favedLocationRepository;
+    private final ClientService clientService;
+    private final JsonMapper jsonMapper;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder exportedRows = new LongAdder();
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format of(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + name + ", expected ndjson or csv");
+            }
+        }
+    }
+
+    /**
+     * Fails before the response starts streaming, so an unknown client is a plain error response
+     * instead of an empty 200
+     */
+    public void checkClient(UUID clientId) {
+        if (!clientService.clientExists(clientId)) {
+            throw new IllegalArgumentException("Client not found: " + clientId);
+        }
+    }
+
+    /**
+     * Writes the client's visited locations, then its favorites, each oldest first. Holds one
+     * database connection until everything is written, however slowly the caller reads.
+     *
+     * @return the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long export(UUID clientId, Format format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_CHARS);
+            CsvWriter csv = format == Format.CSV ? new CsvWriter(writer) : null;
+            if (csv != null) {
+                csv.writeRow(CSV_HEADER);
+            }
+            try (Stream<LocationResponse> visited = visitedLocationRepository.streamResponsesByClientId(clientId)) {
+                rows += writeRows("visited", visited, writer, csv);
+            }
+            try (Stream<LocationResponse> faved = favedLocationRepository.streamResponsesByClientId(clientId)) {
+                rows += writeRows("faved", faved, writer, csv);
+            }
+            writer.flush();
+            completed.increment();
+            log.info("Exported {} locations for client {} as {} in {} ms",
+                rows, clientId, format, (System.nanoTime() - start) / 1_000_000);
+            return rows;
+        } catch (IOException | RuntimeException e) {
+            // Usually the caller disconnecting mid-download
+            failed.increment();
+            log.warn("Export for client {} failed after {} rows: {}", clientId, rows, e.getMessage());
+            throw e;
+        }
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getExportedRowCount() {
+        return exportedRows.sum();
+    }
+
+    private long writeRows(String type, Stream<LocationResponse> locations, Writer writer, CsvWriter csv) throws IOException {
+        long rows = 0;
+        Iterator<LocationResponse> iterator = locations.iterator();
+        while (iterator.hasNext()) {
+            LocationExportRow row = LocationExportRow.of(type, iterator.next());
+            if (csv != null) {
+                csv.writeRow(row.getType(), row.getId().toString(), row.getPlaceDesc(), row.getLatitude(),
+                    row.getLongitude(), toString(row.getCategoryId()), row.getCategoryName(), toString(row.getCreatedAt()));
+            } else {
+                writer.write(jsonMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+            rows++;
+            exportedRows.increment();
+        }
+        return rows;
+    }
+
+    private static String toString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
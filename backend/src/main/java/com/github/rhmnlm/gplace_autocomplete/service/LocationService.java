@@ -1,25 +1,52 @@
 package com.github.rhmnlm.gplace_autocomplete.service;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.github.rhmnlm.gplace_autocomplete.cache.ClientVersionCache;
+import com.github.rhmnlm.gplace_autocomplete.cache.FavedSearchIndex;
+import com.github.rhmnlm.gplace_autocomplete.cache.PlaceSuggestionIndex;
+import com.github.rhmnlm.gplace_autocomplete.cache.RecentVisitsCache;
+import com.github.rhmnlm.gplace_autocomplete.dto.BatchItemResult;
+import com.github.rhmnlm.gplace_autocomplete.dto.BatchResponse;
+import com.github.rhmnlm.gplace_autocomplete.dto.CursorPage;
 import com.github.rhmnlm.gplace_autocomplete.dto.LocationRequest;
 import com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse;
+import com.github.rhmnlm.gplace_autocomplete.dto.NearbyLocationResponse;
+import com.github.rhmnlm.gplace_autocomplete.dto.PlaceSuggestionResponse;
+import com.github.rhmnlm.gplace_autocomplete.dto.VisitedLocationBatchRequest;
+import com.github.rhmnlm.gplace_autocomplete.dto.VisitedPlaceResponse;
 import com.github.rhmnlm.gplace_autocomplete.entity.Category;
 import com.github.rhmnlm.gplace_autocomplete.entity.Client;
 import com.github.rhmnlm.gplace_autocomplete.entity.FavedLocation;
 import com.github.rhmnlm.gplace_autocomplete.entity.VisitedLocation;
 import com.github.rhmnlm.gplace_autocomplete.repository.CategoryRepository;
-import com.github.rhmnlm.gplace_autocomplete.repository.ClientRepository;
 import com.github.rhmnlm.gplace_autocomplete.repository.FavedLocationRepository;
 import com.github.rhmnlm.gplace_autocomplete.repository.VisitedLocationRepository;
+import com.github.rhmnlm.gplace_autocomplete.util.GeoCell;
+import com.github.rhmnlm.gplace_autocomplete.util.KeysetCursor;
 import com.github.rhmnlm.gplace_autocomplete.util.UuidUtil;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -27,41 +54,102 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 @Slf4j
 public class LocationService {
+
+    private static final double METERS_PER_DEGREE_LATITUDE = 111_320d;
+
+    // Above this many geo cells the bounding box alone is a cheaper prefilter than a long IN list
+    private static final int MAX_PREFILTER_CELLS = 256;
     
     private final VisitedLocationRepository visitedLocationRepository;
     private final FavedLocationRepository favedLocationRepository;
-    private final ClientRepository clientRepository;
+    private final ClientService clientService;
     private final CategoryRepository categoryRepository;
+    private final Validator validator;
+    private final VisitWriteBehindBuffer visitWriteBehindBuffer;
+    private final VisitedPlaceService visitedPlaceService;
+    private final RecentVisitsCache recentVisitsCache;
+    private final PlaceSuggestionIndex placeSuggestionIndex;
+    private final FavedSearchIndex favedSearchIndex;
+    private final ClientVersionCache clientVersionCache;
+    private final WeatherPrefetcher weatherPrefetcher;
     
     @Transactional
     public LocationResponse saveVisitedLocation(LocationRequest request) {
-        Client client = clientRepository.findById(request.getClientId())
-            .orElseThrow(() -> new IllegalArgumentException("Client not found: " + request.getClientId()));
+        Client client = clientService.getClientReference(request.getClientId());
         
         VisitedLocation location = new VisitedLocation();
         location.setId(UuidUtil.generateUuidV7());
         location.setPlaceDesc(request.getPlaceDesc());
-        location.setLatitude(request.getLatitude());
-        location.setLongitude(request.getLongitude());
+        location.setCoordinates(request.getLatitude(), request.getLongitude());
         location.setCreatedAt(LocalDateTime.now());
         location.setClient(client);
+
+        // In write-behind mode the visit is acknowledged with its pre-generated id and inserted
+        // (and aggregated) later
+        if (visitWriteBehindBuffer.offer(location)) {
+            log.debug("Queued visited location {} for client {}", location.getId(), request.getClientId());
+            return toLocationResponse(location);
+        }
         
         VisitedLocation saved = visitedLocationRepository.save(location);
+        visitedPlaceService.recordVisits(List.of(saved));
         log.info("Saved visited location {} for client {}", saved.getId(), request.getClientId());
         
-        return toLocationResponse(saved);
+        LocationResponse response = toLocationResponse(saved);
+        addVisitsAfterCommit(request.getClientId(), List.of(response));
+        return response;
+    }
+    
+    /**
+     * Saves many visits for one client in a single transaction. The client is checked once and
+     * rows are inserted through Hibernate JDBC batching (see hibernate.jdbc.batch_size).
+     * Invalid items are rejected individually and reported back by index.
+     */
+    @Transactional
+    public BatchResponse saveVisitedLocations(VisitedLocationBatchRequest request) {
+        Client client = clientService.getClientReference(request.getClientId());
+
+        List<VisitedLocationBatchRequest.Visit> visits = request.getVisits();
+        List<BatchItemResult> results = new ArrayList<>(visits.size());
+        List<VisitedLocation> locations = new ArrayList<>(visits.size());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < visits.size(); i++) {
+            VisitedLocationBatchRequest.Visit visit = visits.get(i);
+            String error = validate(visit);
+            if (error != null) {
+                results.add(new BatchItemResult(i, BatchItemResult.Status.REJECTED, null, error));
+                continue;
+            }
+
+            VisitedLocation location = new VisitedLocation();
+            location.setId(UuidUtil.generateUuidV7());
+            location.setPlaceDesc(visit.getPlaceDesc());
+            location.setCoordinates(visit.getLatitude(), visit.getLongitude());
+            location.setCreatedAt(visit.getVisitedAt() != null ? visit.getVisitedAt() : now);
+            location.setClient(client);
+
+            locations.add(location);
+            results.add(new BatchItemResult(i, BatchItemResult.Status.CREATED, location.getId(), null));
+        }
+
+        visitedLocationRepository.saveAll(locations);
+        visitedPlaceService.recordVisits(locations);
+        addVisitsAfterCommit(request.getClientId(),
+            locations.stream().map(LocationService::toLocationResponse).toList());
+        log.info("Saved {} of {} visited locations for client {}", locations.size(), visits.size(), request.getClientId());
+
+        return new BatchResponse(locations.size(), visits.size() - locations.size(), results);
     }
     
     @Transactional
     public LocationResponse saveFavedLocation(LocationRequest request) {
-        Client client = clientRepository.findById(request.getClientId())
-            .orElseThrow(() -> new IllegalArgumentException("Client not found: " + request.getClientId()));
+        Client client = clientService.getClientReference(request.getClientId());
 
         FavedLocation location = new FavedLocation();
         location.setId(UuidUtil.generateUuidV7());
         location.setPlaceDesc(request.getPlaceDesc());
-        location.setLatitude(request.getLatitude());
-        location.setLongitude(request.getLongitude());
+        location.setCoordinates(request.getLatitude(), request.getLongitude());
         location.setCreatedAt(LocalDateTime.now());
         location.setClient(client);
 
@@ -82,12 +170,21 @@ public class LocationService {
         FavedLocation saved = favedLocationRepository.save(location);
         log.info("Saved faved location {} for client {}", saved.getId(), request.getClientId());
 
-        return toLocationResponse(saved, message);
+        LocationResponse response = toLocationResponse(saved, message);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                placeSuggestionIndex.addFaved(request.getClientId(), response);
+                favedSearchIndex.put(request.getClientId(), response);
+                clientVersionCache.increment(request.getClientId());
+            }
+        });
+        return response;
     }
 
     @Transactional
     public LocationResponse assignCategoryToFavedLocation(UUID locationId, UUID categoryId, UUID clientId) {
-        FavedLocation location = favedLocationRepository.findById(locationId)
+        FavedLocation location = favedLocationRepository.findWithCategoryById(locationId)
             .orElseThrow(() -> new IllegalArgumentException("Faved location not found: " + locationId));
 
         // Verify location belongs to client
@@ -114,61 +211,313 @@ public class LocationService {
         FavedLocation saved = favedLocationRepository.save(location);
         log.info("Updated category for faved location {} to {}", locationId, categoryId);
 
-        return toLocationResponse(saved, message);
+        LocationResponse response = toLocationResponse(saved, message);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                favedSearchIndex.put(clientId, response);
+                clientVersionCache.increment(clientId);
+            }
+        });
+        return response;
     }
 
     @Transactional(readOnly = true)
     public Page<LocationResponse> getFavedLocationsByCategory(UUID categoryId, UUID clientId, Pageable pageable) {
-        Page<FavedLocation> locations = favedLocationRepository.findByCategory_IdAndClient_ClientId(categoryId, clientId, pageable);
-        return locations.map(this::toLocationResponse);
+        return favedLocationRepository.findResponsesByCategoryIdAndClientId(categoryId, clientId, pageable);
+    }
+    
+    /**
+     * First page of visited locations from the recent visits cache. Not transactional, so a hit
+     * does not take a database connection.
+     *
+     * @return null if the page cannot be served from the cache, use {@link #getVisitedLocations(UUID, Pageable)}
+     */
+    public Page<LocationResponse> getCachedVisitedLocations(UUID clientId, Pageable pageable) {
+        return recentVisitsCache.canServe(pageable) ? recentVisitsCache.getFirstPage(clientId, pageable) : null;
     }
     
     @Transactional(readOnly = true)
     public Page<LocationResponse> getVisitedLocations(UUID clientId, Pageable pageable) {
-        Page<VisitedLocation> locations = visitedLocationRepository.findByClient_ClientId(clientId, pageable);
-        return locations.map(this::toLocationResponse);
+        long ticket = recentVisitsCache.canServe(pageable) ? recentVisitsCache.beginLoad(clientId) : -1;
+        if (ticket < 0) {
+            return visitedLocationRepository.findResponsesByClientId(clientId, pageable);
+        }
+
+        // Read the client's whole cache window once, then answer this request from it. The count
+        // only covers visits older than the window, so a visit committed between the two queries
+        // is either in neither or older than the window, and the cache can tell which.
+        try {
+            int perClient = recentVisitsCache.getPerClient();
+            List<LocationResponse> window = visitedLocationRepository.findFirstKeysetPage(
+                clientId, PageRequest.of(0, perClient));
+            long total = window.size();
+            if (window.size() == perClient) {
+                LocationResponse oldest = window.get(window.size() - 1);
+                total += visitedLocationRepository.countOlderThan(clientId, oldest.getCreatedAt(), oldest.getId());
+            }
+            recentVisitsCache.completeLoad(clientId, ticket, window, total);
+            List<LocationResponse> content = window.subList(0, Math.min(pageable.getPageSize(), window.size()));
+            return new PageImpl<>(content, pageable, total);
+        } catch (RuntimeException e) {
+            recentVisitsCache.cancelLoad(clientId, ticket);
+            throw e;
+        }
+    }
+    
+    /**
+     * Marks the client as active for weather prefetching. Called for every favorites listing,
+     * including those answered with 304 Not Modified.
+     */
+    public void recordFavedActivity(UUID clientId) {
+        weatherPrefetcher.recordActivity(clientId);
     }
     
     @Transactional(readOnly = true)
     public Page<LocationResponse> getFavedLocations(UUID clientId, Pageable pageable) {
-        Page<FavedLocation> locations = favedLocationRepository.findByClient_ClientId(clientId, pageable);
-        return locations.map(this::toLocationResponse);
+        return favedLocationRepository.findResponsesByClientId(clientId, pageable);
     }
     
+    /**
+     * Seek-based alternative to {@link #getVisitedLocations(UUID, Pageable)}: each page starts right
+     * after the cursor row, so the cost does not grow with depth and no count query is run
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<LocationResponse> getVisitedLocations(UUID clientId, String cursor, int size) {
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<LocationResponse> locations;
+        if (cursor == null) {
+            locations = visitedLocationRepository.findFirstKeysetPage(clientId, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            locations = visitedLocationRepository.findKeysetPageAfter(clientId, after.createdAt(), after.id(), limit);
+        }
+        return toCursorPage(locations, size);
+    }
+
     @Transactional(readOnly = true)
-    public VisitedLocation getVisitedLocationById(UUID locationId) {
-        return visitedLocationRepository.findById(locationId)
-            .orElseThrow(() -> new IllegalArgumentException("Visited location not found: " + locationId));
+    public CursorPage<LocationResponse> getFavedLocations(UUID clientId, String cursor, int size) {
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<LocationResponse> locations;
+        if (cursor == null) {
+            locations = favedLocationRepository.findFirstKeysetPage(clientId, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            locations = favedLocationRepository.findKeysetPageAfter(clientId, after.createdAt(), after.id(), limit);
+        }
+        return toCursorPage(locations, size);
+    }
+    
+    /**
+     * Places from the client's own visits and favorites with a word starting with the prefix, best
+     * ranked first. Not transactional: an indexed client is answered without a database connection,
+     * otherwise its places are read once and indexed.
+     */
+    public List<PlaceSuggestionResponse> suggestPlaces(UUID clientId, String prefix, int limit) {
+        List<PlaceSuggestionResponse> suggestions = placeSuggestionIndex.suggest(clientId, prefix, limit);
+        if (suggestions != null) {
+            return suggestions;
+        }
+
+        long ticket = placeSuggestionIndex.beginLoad(clientId);
+        try {
+            int maxPlaces = placeSuggestionIndex.getMaxPlacesPerClient();
+            List<VisitedPlaceResponse> visited = visitedPlaceService.getTopPlaces(clientId, maxPlaces);
+            List<LocationResponse> faved = favedLocationRepository.findFirstKeysetPage(clientId, PageRequest.ofSize(maxPlaces));
+            if (ticket >= 0) {
+                placeSuggestionIndex.completeLoad(clientId, ticket, visited, faved);
+            }
+            return placeSuggestionIndex.search(visited, faved, prefix, limit);
+        } catch (RuntimeException e) {
+            if (ticket >= 0) {
+                placeSuggestionIndex.cancelLoad(clientId, ticket);
+            }
+            throw e;
+        }
     }
     
+    /**
+     * Favorites with every word of the query in their place description or category name, best
+     * match first. Not transactional: the ranking comes from the client's in-memory trigram index
+     * and only the requested page is read, by id. Clients with too many favorites to index are
+     * searched with LIKE instead, newest first.
+     */
+    public Page<LocationResponse> searchFavedLocations(UUID clientId, String query, Pageable pageable) {
+        List<UUID> ranked = favedSearchIndex.search(clientId, query);
+        if (ranked == null) {
+            ranked = loadFavedSearchIndex(clientId, query);
+        }
+        if (ranked == null) {
+            return favedLocationRepository.searchResponsesByClientId(clientId, toLikePattern(query), pageable);
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        List<UUID> pageIds = ranked.subList(from, Math.min(from + pageable.getPageSize(), ranked.size()));
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ranked.size());
+        }
+        Map<UUID, LocationResponse> rows = favedLocationRepository.findResponsesByClientIdAndIdIn(clientId, pageIds).stream()
+            .collect(Collectors.toMap(LocationResponse::getId, Function.identity()));
+        // A favorite can be gone from the database while still ranked, the page is just one short then
+        List<LocationResponse> content = pageIds.stream().map(rows::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, pageable, ranked.size());
+    }
+    
+    /**
+     * The client's most visited places, served from the per-place aggregate
+     */
     @Transactional(readOnly = true)
-    public FavedLocation getFavedLocationById(UUID locationId) {
-        return favedLocationRepository.findById(locationId)
-            .orElseThrow(() -> new IllegalArgumentException("Faved location not found: " + locationId));
+    public List<VisitedPlaceResponse> getTopVisitedPlaces(UUID clientId, int limit) {
+        return visitedPlaceService.getTopPlaces(clientId, limit);
+    }
+    
+    /**
+     * Favorites within radiusMeters of the given point, nearest first. Candidates come from a
+     * bounding-box (and geo cell when small enough) prefilter, then exact distance is applied.
+     */
+    @Transactional(readOnly = true)
+    public List<NearbyLocationResponse> getNearbyFavedLocations(
+            UUID clientId, double latitude, double longitude, double radiusMeters, int limit) {
+        double latDelta = radiusMeters / METERS_PER_DEGREE_LATITUDE;
+        double minLat = Math.max(-90, latitude - latDelta);
+        double maxLat = Math.min(90, latitude + latDelta);
+
+        // Longitude degrees shrink towards the poles; near a pole or across the antimeridian use the full range
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double lonDelta = cosLat > 0 ? radiusMeters / (METERS_PER_DEGREE_LATITUDE * cosLat) : 360;
+        boolean fullLongitude = longitude - lonDelta < -180 || longitude + lonDelta > 180;
+        double minLon = fullLongitude ? -180 : longitude - lonDelta;
+        double maxLon = fullLongitude ? 180 : longitude + lonDelta;
+
+        List<Long> geoCells = fullLongitude ? List.of() : geoCellsCovering(minLat, maxLat, minLon, maxLon);
+        List<FavedLocation> candidates = geoCells.isEmpty()
+            ? favedLocationRepository.findInBoundingBox(clientId,
+                BigDecimal.valueOf(minLat), BigDecimal.valueOf(maxLat),
+                BigDecimal.valueOf(minLon), BigDecimal.valueOf(maxLon))
+            : favedLocationRepository.findInGeoCells(clientId, geoCells,
+                BigDecimal.valueOf(minLat), BigDecimal.valueOf(maxLat),
+                BigDecimal.valueOf(minLon), BigDecimal.valueOf(maxLon));
+
+        List<NearbyLocationResponse> nearby = new ArrayList<>();
+        for (FavedLocation location : candidates) {
+            double distance = GeoCell.distanceMeters(latitude, longitude,
+                location.getLatitudeValue().doubleValue(), location.getLongitudeValue().doubleValue());
+            if (distance <= radiusMeters) {
+                nearby.add(new NearbyLocationResponse(toLocationResponse(location), distance));
+            }
+        }
+        log.debug("Nearby search for client {} scanned {} candidates, matched {}", clientId, candidates.size(), nearby.size());
+
+        return nearby.stream()
+            .sorted(Comparator.comparingDouble(NearbyLocationResponse::getDistanceMeters))
+            .limit(limit)
+            .toList();
+    }
+    
+    // Null if the client has too many favorites to index, or another request is indexing it
+    private List<UUID> loadFavedSearchIndex(UUID clientId, String query) {
+        long ticket = favedSearchIndex.beginLoad(clientId);
+        if (ticket < 0) {
+            return null;
+        }
+        try {
+            int maxPerClient = favedSearchIndex.getMaxPerClient();
+            List<LocationResponse> favorites = favedLocationRepository.findFirstKeysetPage(clientId, PageRequest.ofSize(maxPerClient + 1));
+            if (favorites.size() > maxPerClient) {
+                log.info("Client {} has more than {} favorites, searching them in the database", clientId, maxPerClient);
+                favedSearchIndex.markTooLarge(clientId, ticket);
+                return null;
+            }
+            return favedSearchIndex.completeLoad(clientId, ticket, favorites, query);
+        } catch (RuntimeException e) {
+            favedSearchIndex.cancelLoad(clientId, ticket);
+            throw e;
+        }
+    }
+
+    // Contains-pattern for the LIKE fallback, '!' being the escape character
+    private static String toLikePattern(String query) {
+        String escaped = query.trim().replaceAll("\\s+", " ").replaceAll("([!%_\\[])", "!$1");
+        return "%" + escaped + "%";
+    }
+    
+    // Only committed visits may become visible through the caches
+    private void addVisitsAfterCommit(UUID clientId, List<LocationResponse> visits) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentVisitsCache.addAll(clientId, visits);
+                placeSuggestionIndex.addVisits(clientId, visits);
+                clientVersionCache.increment(clientId);
+            }
+        });
+    }
+    
+    private String validate(Object item) {
+        if (item == null) {
+            return "item is required";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+    }
+
+    // Empty when the box spans too many cells to be worth listing
+    private List<Long> geoCellsCovering(double minLat, double maxLat, double minLon, double maxLon) {
+        long minLatIndex = GeoCell.cellIndex(minLat);
+        long maxLatIndex = GeoCell.cellIndex(maxLat);
+        long minLonIndex = GeoCell.cellIndex(minLon);
+        long maxLonIndex = GeoCell.cellIndex(maxLon);
+        if ((maxLatIndex - minLatIndex + 1) * (maxLonIndex - minLonIndex + 1) > MAX_PREFILTER_CELLS) {
+            return List.of();
+        }
+        List<Long> cells = new ArrayList<>();
+        for (long lat = minLatIndex; lat <= maxLatIndex; lat++) {
+            for (long lon = minLonIndex; lon <= maxLonIndex; lon++) {
+                cells.add(GeoCell.key(lat, lon));
+            }
+        }
+        return cells;
+    }
+
+    // One extra row is fetched to tell whether another page exists
+    private CursorPage<LocationResponse> toCursorPage(List<LocationResponse> rows, int size) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, size, null);
+        }
+        List<LocationResponse> content = rows.subList(0, size);
+        LocationResponse last = content.get(size - 1);
+        String nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        return new CursorPage<>(content, size, nextCursor);
     }
     
-    private LocationResponse toLocationResponse(VisitedLocation location) {
+    // Maps entities the service already holds: saved rows, write-behind batches and nearby matches.
+    // Paged listings and exports are built by the repository projections instead.
+    // Static so VisitWriteBehindBuffer and LocationMappingBenchmark can use it without the service
+    static LocationResponse toLocationResponse(VisitedLocation location) {
         return new LocationResponse(
             location.getId(),
             location.getPlaceDesc(),
-            location.getLatitude(),
-            location.getLongitude(),
+            GeoCell.format(location.getLatitudeValue()),
+            GeoCell.format(location.getLongitudeValue()),
             location.getCreatedAt(),
             location.getClient().getClientId()
         );
     }
     
-    private LocationResponse toLocationResponse(FavedLocation location) {
+    static LocationResponse toLocationResponse(FavedLocation location) {
         return toLocationResponse(location, null);
     }
 
-    private LocationResponse toLocationResponse(FavedLocation location, String message) {
+    static LocationResponse toLocationResponse(FavedLocation location, String message) {
         Category category = location.getCategory();
         return new LocationResponse(
             location.getId(),
             location.getPlaceDesc(),
-            location.getLatitude(),
-            location.getLongitude(),
+            GeoCell.format(location.getLatitudeValue()),
+            GeoCell.format(location.getLongitudeValue()),
             location.getCreatedAt(),
             location.getClient().getClientId(),
             category != null ? category.getId() : null,
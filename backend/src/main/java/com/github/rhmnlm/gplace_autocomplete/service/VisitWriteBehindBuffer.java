@@ -0,0 +1,309 @@
+package com.github.rhmnlm.gplace_autocomplete.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.rhmnlm.gplace_autocomplete.cache.ClientVersionCache;
+import com.github.rhmnlm.gplace_autocomplete.cache.PlaceSuggestionIndex;
+import com.github.rhmnlm.gplace_autocomplete.cache.RecentVisitsCache;
+import com.github.rhmnlm.gplace_autocomplete.entity.VisitedLocation;
+import com.github.rhmnlm.gplace_autocomplete.repository.VisitedLocationRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional write-behind mode for visit logging. Visits are queued in a bounded buffer and
+ * a background worker inserts them in batches, flushing when a batch is full or when the
+ * flush interval has passed since its first visit. When the buffer stays full for longer
+ * than the offer timeout the caller falls back to a synchronous insert, so a full buffer slows
+ * requests down rather than dropping visits. A batch that fails to save is retried with
+ * backoff, then saved one visit per transaction, so a bad row only loses itself.
+ *
+ * <p>Callers are answered before their visits are saved, so some can still be lost: visits
+ * queued when the process crashes or is killed, visits still queued when the shutdown timeout
+ * runs out, and visits that fail on their own after every retry. The last are logged and
+ * counted in visits.write.behind.failed. On shutdown the buffer stops accepting and drains
+ * what is queued.
+ */
+@Component
+@Slf4j
+public class VisitWriteBehindBuffer {
+
+    private final VisitedLocationRepository visitedLocationRepository;
+    private final VisitedPlaceService visitedPlaceService;
+    private final RecentVisitsCache recentVisitsCache;
+    private final PlaceSuggestionIndex placeSuggestionIndex;
+    private final ClientVersionCache clientVersionCache;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutMillis;
+    private final long shutdownTimeoutMillis;
+    private final int retryMaxAttempts;
+    private final long retryBackoffMillis;
+    private final BlockingQueue<VisitedLocation> queue;
+    private final boolean virtualThreads;
+
+    private final LongAdder flushedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushNanosTotal = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    private volatile boolean accepting;
+    private Thread worker;
+
+    public VisitWriteBehindBuffer(
+            VisitedLocationRepository visitedLocationRepository,
+            VisitedPlaceService visitedPlaceService,
+            RecentVisitsCache recentVisitsCache,
+            PlaceSuggestionIndex placeSuggestionIndex,
+            ClientVersionCache clientVersionCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${locations.visited.write-behind.enabled:false}") boolean enabled,
+            @Value("${locations.visited.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${locations.visited.write-behind.batch-size:100}") int batchSize,
+            @Value("${locations.visited.write-behind.flush-interval:500ms}") Duration flushInterval,
+            @Value("${locations.visited.write-behind.offer-timeout:50ms}") Duration offerTimeout,
+            @Value("${locations.visited.write-behind.shutdown-timeout:10s}") Duration shutdownTimeout,
+            @Value("${locations.visited.write-behind.retry.max-attempts:3}") int retryMaxAttempts,
+            @Value("${locations.visited.write-behind.retry.backoff:200ms}") Duration retryBackoff,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.visitedLocationRepository = visitedLocationRepository;
+        this.visitedPlaceService = visitedPlaceService;
+        this.recentVisitsCache = recentVisitsCache;
+        this.placeSuggestionIndex = placeSuggestionIndex;
+        this.clientVersionCache = clientVersionCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutMillis = offerTimeout.toMillis();
+        this.shutdownTimeoutMillis = shutdownTimeout.toMillis();
+        this.retryMaxAttempts = Math.max(1, retryMaxAttempts);
+        this.retryBackoffMillis = retryBackoff.toMillis();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.virtualThreads = virtualThreads;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        accepting = true;
+        worker = virtualThreads
+            ? Thread.ofVirtual().name("visit-write-behind").start(this::drainLoop)
+            : Thread.ofPlatform().name("visit-write-behind").daemon(true).start(this::drainLoop);
+        log.info("Visit write-behind enabled: capacity={}, batchSize={}, flushInterval={}ms",
+            queue.remainingCapacity(), batchSize, TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos));
+    }
+
+    @PreDestroy
+    void stop() {
+        if (worker == null) {
+            return;
+        }
+        accepting = false;
+        try {
+            worker.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            log.warn("Visit write-behind worker did not finish within {}ms", shutdownTimeoutMillis);
+        }
+
+        // Anything offered while the worker was exiting is flushed here
+        List<VisitedLocation> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+        log.info("Visit write-behind stopped: flushed={}, failed={}", flushedCount.sum(), failedCount.sum());
+    }
+
+    public boolean isEnabled() {
+        return accepting;
+    }
+
+    /**
+     * Queues a visit for a later batched insert
+     *
+     * @return false if the buffer is disabled or stayed full, the caller must then save it itself
+     */
+    public boolean offer(VisitedLocation location) {
+        if (!accepting) {
+            return false;
+        }
+        try {
+            return queue.offer(location, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void drainLoop() {
+        List<VisitedLocation> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                VisitedLocation first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    VisitedLocation next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                flush(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<VisitedLocation> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            List<VisitedLocation> saved = saveWithRetry(batch);
+            flushedCount.add(saved.size());
+            saved.stream()
+                .collect(Collectors.groupingBy(visit -> visit.getClient().getClientId(),
+                    Collectors.mapping(LocationService::toLocationResponse, Collectors.toList())))
+                .forEach((clientId, visits) -> {
+                    recentVisitsCache.addAll(clientId, visits);
+                    placeSuggestionIndex.addVisits(clientId, visits);
+                    clientVersionCache.increment(clientId);
+                });
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushes.increment();
+            flushNanosTotal.add(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+            log.debug("Flushed {} visited locations in {}ms", batch.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+
+    /**
+     * Saves the batch in one transaction, retrying with doubling backoff. Once the attempts are
+     * used up, or the worker is interrupted, each visit is saved on its own.
+     *
+     * @return the visits that were saved
+     */
+    private List<VisitedLocation> saveWithRetry(List<VisitedLocation> batch) {
+        long backoffMillis = retryBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                save(batch);
+                return batch;
+            } catch (RuntimeException e) {
+                if (attempt >= retryMaxAttempts) {
+                    log.warn("Failed to flush {} visited locations after {} attempts, saving them one by one: {}",
+                        batch.size(), attempt, e.getMessage());
+                    return saveEach(batch);
+                }
+                log.warn("Failed to flush {} visited locations (attempt {} of {}), retrying in {}ms: {}",
+                    batch.size(), attempt, retryMaxAttempts, backoffMillis, e.getMessage());
+                retryCount.increment();
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return saveEach(batch);
+                }
+                backoffMillis *= 2;
+            }
+        }
+    }
+
+    private List<VisitedLocation> saveEach(List<VisitedLocation> batch) {
+        List<VisitedLocation> saved = new ArrayList<>(batch.size());
+        for (VisitedLocation visit : batch) {
+            try {
+                save(List.of(visit));
+                saved.add(visit);
+            } catch (RuntimeException e) {
+                failedCount.increment();
+                log.error("Dropped visited location {} for client {}: {}",
+                    visit.getId(), visit.getClient().getClientId(), e.getMessage(), e);
+            }
+        }
+        return saved;
+    }
+
+    private void save(List<VisitedLocation> visits) {
+        transactionTemplate.executeWithoutResult(status -> {
+            visitedLocationRepository.saveAll(visits);
+            visitedPlaceService.recordVisits(visits);
+        });
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+
+    public double getAverageFlushMillis() {
+        long count = flushes.sum();
+        return count == 0 ? 0 : flushNanosTotal.sum() / (count * 1_000_000d);
+    }
+
+    public double getTotalFlushMillis() {
+        return flushNanosTotal.sum() / 1_000_000d;
+    }
+
+    public double getMaxFlushMillis() {
+        return maxFlushNanos.get() / 1_000_000d;
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.rhmnlm.gplace_autocomplete.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.rhmnlm.gplace_autocomplete.cache.ClientVersionCache;
+import com.github.rhmnlm.gplace_autocomplete.cache.RecentVisitsCache;
+import com.github.rhmnlm.gplace_autocomplete.repository.VisitedLocationRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optionally deletes raw visit rows older than the retention period. Visit counts and first/last
+ * visit times live on in visited_place, only the per-visit history is dropped.
+ */
+@Component
+@ConditionalOnProperty(prefix = "locations.visited.pruning", name = "enabled", havingValue = "true")
+@Slf4j
+public class VisitedLocationPruner {
+
+    private final VisitedLocationRepository visitedLocationRepository;
+    private final RecentVisitsCache recentVisitsCache;
+    private final ClientVersionCache clientVersionCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+
+    public VisitedLocationPruner(
+            VisitedLocationRepository visitedLocationRepository,
+            RecentVisitsCache recentVisitsCache,
+            ClientVersionCache clientVersionCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${locations.visited.pruning.retention:90d}") Duration retention,
+            @Value("${locations.visited.pruning.batch-size:5000}") int batchSize) {
+        this.visitedLocationRepository = visitedLocationRepository;
+        this.recentVisitsCache = recentVisitsCache;
+        this.clientVersionCache = clientVersionCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.batchSize = batchSize;
+        log.info("Visited location pruning enabled: retention={}, batchSize={}", retention, batchSize);
+    }
+
+    @Scheduled(cron = "${locations.visited.pruning.cron:0 0 3 * * *}")
+    public void prune() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        long total = 0;
+        int deleted;
+        do {
+            // Each batch commits on its own
+            deleted = transactionTemplate.execute(status -> visitedLocationRepository.deleteCreatedBefore(cutoff, batchSize));
+            total += deleted;
+        } while (deleted == batchSize);
+        if (total > 0) {
+            // Cached pages and totals may include deleted visits
+            recentVisitsCache.clear();
+            // Deleted by age across all clients, so every client's lists may have changed
+            clientVersionCache.incrementAll();
+        }
+        log.info("Pruned {} visited locations created before {}", total, cutoff);
+    }
+}
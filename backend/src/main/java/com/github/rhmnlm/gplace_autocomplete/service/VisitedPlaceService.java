@@ -0,0 +1,119 @@
+package com.github.rhmnlm.gplace_autocomplete.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.rhmnlm.gplace_autocomplete.dto.VisitedPlaceResponse;
+import com.github.rhmnlm.gplace_autocomplete.entity.VisitedLocation;
+import com.github.rhmnlm.gplace_autocomplete.entity.VisitedPlace;
+import com.github.rhmnlm.gplace_autocomplete.repository.ClientRepository;
+import com.github.rhmnlm.gplace_autocomplete.repository.VisitedPlaceRepository;
+import com.github.rhmnlm.gplace_autocomplete.util.UuidUtil;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VisitedPlaceService {
+
+    // Places sorted by client first, so transactions touching several clients lock them in the same order
+    private static final Comparator<PlaceKey> LOCK_ORDER = Comparator
+        .comparing(PlaceKey::clientId)
+        .thenComparing(PlaceKey::placeDesc)
+        .thenComparing(PlaceKey::latitude)
+        .thenComparing(PlaceKey::longitude);
+
+    private final VisitedPlaceRepository visitedPlaceRepository;
+    private final ClientRepository clientRepository;
+
+    /**
+     * Adds visits to the per-place aggregate, in the caller's transaction. Visits to the same place
+     * are folded into one UPDATE. A place seen for the first time is inserted while holding a lock
+     * on the client row, so two concurrent first visits cannot both insert it.
+     */
+    @Transactional
+    public void recordVisits(Collection<VisitedLocation> visits) {
+        Map<PlaceKey, Tally> tallies = new TreeMap<>(LOCK_ORDER);
+        for (VisitedLocation visit : visits) {
+            tallies.computeIfAbsent(PlaceKey.of(visit), key -> new Tally()).add(visit.getCreatedAt());
+        }
+
+        Set<UUID> lockedClients = new HashSet<>();
+        for (Map.Entry<PlaceKey, Tally> entry : tallies.entrySet()) {
+            PlaceKey key = entry.getKey();
+            Tally tally = entry.getValue();
+            if (addVisits(key, tally) > 0) {
+                continue;
+            }
+
+            // First visit to this place: take the client lock, then check again since a
+            // concurrent transaction may have inserted the place while we waited
+            if (lockedClients.add(key.clientId())) {
+                clientRepository.findWithLockByClientId(key.clientId())
+                    .orElseThrow(() -> new IllegalArgumentException("Client not found"));
+            }
+            if (addVisits(key, tally) > 0) {
+                continue;
+            }
+
+            VisitedPlace place = new VisitedPlace();
+            place.setId(UuidUtil.generateUuidV7());
+            place.setPlaceDesc(key.placeDesc());
+            place.setLatitudeValue(key.latitude());
+            place.setLongitudeValue(key.longitude());
+            place.setVisitCount(tally.count);
+            place.setFirstVisitedAt(tally.first);
+            place.setLastVisitedAt(tally.last);
+            place.setClient(clientRepository.getReferenceById(key.clientId()));
+            visitedPlaceRepository.save(place);
+        }
+        log.debug("Recorded {} visits across {} places", visits.size(), tallies.size());
+    }
+
+    @Transactional(readOnly = true)
+    public List<VisitedPlaceResponse> getTopPlaces(UUID clientId, int limit) {
+        return visitedPlaceRepository.findTopPlaces(clientId, PageRequest.ofSize(limit));
+    }
+
+    private int addVisits(PlaceKey key, Tally tally) {
+        return visitedPlaceRepository.addVisits(key.clientId(), key.placeDesc(), key.latitude(), key.longitude(),
+            tally.count, tally.first, tally.last);
+    }
+
+    private record PlaceKey(UUID clientId, String placeDesc, BigDecimal latitude, BigDecimal longitude) {
+        static PlaceKey of(VisitedLocation visit) {
+            return new PlaceKey(visit.getClient().getClientId(), visit.getPlaceDesc(),
+                visit.getLatitudeValue(), visit.getLongitudeValue());
+        }
+    }
+
+    private static class Tally {
+        long count;
+        LocalDateTime first;
+        LocalDateTime last;
+
+        void add(LocalDateTime visitedAt) {
+            count++;
+            if (first == null || visitedAt.isBefore(first)) {
+                first = visitedAt;
+            }
+            if (last == null || visitedAt.isAfter(last)) {
+                last = visitedAt;
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.github.rhmnlm.gplace_autocomplete.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.rhmnlm.gplace_autocomplete.cache.WeatherCache;
+import com.github.rhmnlm.gplace_autocomplete.repository.FavedLocationRepository;
+import com.github.rhmnlm.gplace_autocomplete.util.GridCell;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Refresh-ahead for weather: keeps the grid cells covered by recently active clients' favorites
+ * cached, refreshing them shortly before they expire so foreground requests hit a warm cache.
+ * Each tick reads at most {@code max-cells-scanned} distinct favorite coordinates from the
+ * database, most recently active clients first, maps them to cells and refreshes at most {@code max-cells-per-tick} of them,
+ * soonest to expire first, in upstream batches separated by {@code batch-pause}.
+ */
+@Component
+@Slf4j
+public class WeatherPrefetcher {
+
+    // Stays well below SQL Server's 2100 parameter limit
+    private static final int CLIENT_ID_CHUNK = 1000;
+
+    private final FavedLocationRepository favedLocationRepository;
+    private final WeatherService weatherService;
+    private final WeatherCache weatherCache;
+
+    private final boolean enabled;
+    private final long activeWindowMillis;
+    private final int maxActiveClients;
+    private final long refreshAheadMillis;
+    private final int maxCellsPerTick;
+    private final int maxCellsScanned;
+    private final long batchPauseMillis;
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder requestedCells = new LongAdder();
+    private final LongAdder refreshedCells = new LongAdder();
+    private final LongAdder deferredCells = new LongAdder();
+
+    // Access-ordered: client id to last activity, the eldest entry is the least recently active client
+    private final LinkedHashMap<UUID, Long> activeClients = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public WeatherPrefetcher(
+            FavedLocationRepository favedLocationRepository,
+            WeatherService weatherService,
+            WeatherCache weatherCache,
+            @Value("${weather.prefetch.enabled:false}") boolean enabled,
+            @Value("${weather.prefetch.active-window:30m}") Duration activeWindow,
+            @Value("${weather.prefetch.max-active-clients:10000}") int maxActiveClients,
+            @Value("${weather.prefetch.refresh-ahead:2m}") Duration refreshAhead,
+            @Value("${weather.prefetch.max-cells-per-tick:500}") int maxCellsPerTick,
+            @Value("${weather.prefetch.max-cells-scanned:5000}") int maxCellsScanned,
+            @Value("${weather.prefetch.batch-pause:250ms}") Duration batchPause) {
+        this.favedLocationRepository = favedLocationRepository;
+        this.weatherService = weatherService;
+        this.weatherCache = weatherCache;
+        this.enabled = enabled;
+        this.activeWindowMillis = activeWindow.toMillis();
+        this.maxActiveClients = maxActiveClients;
+        this.refreshAheadMillis = refreshAhead.toMillis();
+        this.maxCellsPerTick = maxCellsPerTick;
+        this.maxCellsScanned = maxCellsScanned;
+        this.batchPauseMillis = batchPause.toMillis();
+        if (enabled) {
+            log.info("Weather prefetch enabled: activeWindow={}, refreshAhead={}, maxCellsPerTick={}",
+                activeWindow, refreshAhead, maxCellsPerTick);
+        }
+    }
+
+    /**
+     * Marks the client as active, so its favorites are kept warm for the active window
+     */
+    public void recordActivity(UUID clientId) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            activeClients.put(clientId, System.currentTimeMillis());
+            if (activeClients.size() > maxActiveClients) {
+                Iterator<UUID> eldest = activeClients.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${weather.prefetch.interval:60s}", initialDelayString = "${weather.prefetch.interval:60s}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        ticks.increment();
+        List<UUID> clients = activeClientIds();
+        if (clients.isEmpty()) {
+            return;
+        }
+
+        // Cells not cached or expiring within the refresh-ahead window, soonest to expire first
+        long refreshBefore = System.currentTimeMillis() + refreshAheadMillis;
+        Map<GridCell, Long> due = new HashMap<>();
+        for (GridCell cell : cellsOf(clients)) {
+            long expiresAt = weatherCache.getExpiresAt(cell);
+            if (expiresAt < refreshBefore) {
+                due.put(cell, expiresAt);
+            }
+        }
+        List<GridCell> cells = due.entrySet().stream()
+            .sorted(Map.Entry.comparingByValue(Comparator.naturalOrder()))
+            .limit(maxCellsPerTick)
+            .map(Map.Entry::getKey)
+            .toList();
+        deferredCells.add(due.size() - cells.size());
+
+        int batchSize = weatherService.getBatchSize();
+        int refreshed = 0;
+        for (int from = 0; from < cells.size(); from += batchSize) {
+            if (from > 0 && !pause()) {
+                break;
+            }
+            List<GridCell> chunk = cells.subList(from, Math.min(from + batchSize, cells.size()));
+            requestedCells.add(chunk.size());
+            refreshed += weatherService.prefetch(chunk);
+        }
+        refreshedCells.add(refreshed);
+        log.debug("Weather prefetch refreshed {} of {} due cells for {} active clients",
+            refreshed, due.size(), clients.size());
+    }
+
+    public long getTickCount() {
+        return ticks.sum();
+    }
+
+    public long getRequestedCellCount() {
+        return requestedCells.sum();
+    }
+
+    public long getRefreshedCellCount() {
+        return refreshedCells.sum();
+    }
+
+    public long getDeferredCellCount() {
+        return deferredCells.sum();
+    }
+
+    public int getActiveClientCount() {
+        lock.lock();
+        try {
+            return activeClients.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Drops clients idle for longer than the active window and returns the rest, most recently active first
+    private List<UUID> activeClientIds() {
+        long activeSince = System.currentTimeMillis() - activeWindowMillis;
+        List<UUID> clients = new ArrayList<>();
+        lock.lock();
+        try {
+            activeClients.values().removeIf(lastSeen -> lastSeen < activeSince);
+            clients.addAll(activeClients.keySet());
+        } finally {
+            lock.unlock();
+        }
+        Collections.reverse(clients);
+        return clients;
+    }
+
+    // Stops reading once max-cells-scanned coordinates are read, so clients further down the list wait.
+    // Cells are computed like a foreground request's, so the prefetched ones are the ones it reads.
+    private List<GridCell> cellsOf(List<UUID> clients) {
+        Set<GridCell> cells = new LinkedHashSet<>();
+        int scanned = 0;
+        for (int from = 0; from < clients.size() && scanned < maxCellsScanned; from += CLIENT_ID_CHUNK) {
+            List<UUID> chunk = clients.subList(from, Math.min(from + CLIENT_ID_CHUNK, clients.size()));
+            PageRequest limit = PageRequest.ofSize(maxCellsScanned - scanned);
+            List<Object[]> coordinates = favedLocationRepository.findCoordinatesByClientIds(chunk, limit);
+            scanned += coordinates.size();
+            for (Object[] coordinate : coordinates) {
+                cells.add(weatherCache.cellOf(((BigDecimal) coordinate[0]).doubleValue(), ((BigDecimal) coordinate[1]).doubleValue()));
+            }
+        }
+        return new ArrayList<>(cells);
+    }
+
+    private boolean pause() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(batchPauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
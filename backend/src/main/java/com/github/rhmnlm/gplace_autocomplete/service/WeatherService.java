@@ -1,25 +1,100 @@
 package com.github.rhmnlm.gplace_autocomplete.service;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
+import com.github.rhmnlm.gplace_autocomplete.cache.WeatherCache;
 import com.github.rhmnlm.gplace_autocomplete.dto.OpenMeteoResponse;
+import com.github.rhmnlm.gplace_autocomplete.dto.WeatherBatchRequest;
 import com.github.rhmnlm.gplace_autocomplete.dto.WeatherData;
+import com.github.rhmnlm.gplace_autocomplete.dto.WeatherResult;
+import com.github.rhmnlm.gplace_autocomplete.util.CircuitBreaker;
+import com.github.rhmnlm.gplace_autocomplete.util.GridCell;
 import com.github.rhmnlm.gplace_autocomplete.util.WeatherCodeMapper;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Slf4j
 public class WeatherService {
+
+    // Background refreshes waiting for a platform refresh thread, beyond this stale cells wait for the next request
+    private static final int REFRESH_QUEUE_CAPACITY = 1000;
     
     private final RestClient restClient;
+    private final WeatherCache weatherCache;
+    private final int batchSize;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final ExecutorService refreshExecutor;
+
+    // Upstream calls currently running, so concurrent misses for one cell share a single request
+    private final ConcurrentHashMap<GridCell, CompletableFuture<WeatherData>> inFlight = new ConcurrentHashMap<>();
+    // Stale cells with a background refresh queued or running
+    private final Set<GridCell> refreshing = ConcurrentHashMap.newKeySet();
     
-    public WeatherService(@Value("${weather.api.base-url}") String baseUrl) {
+    public WeatherService(
+            @Value("${weather.api.base-url}") String baseUrl,
+            @Value("${weather.api.batch-size:50}") int batchSize,
+            @Value("${weather.api.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${weather.api.read-timeout:5s}") Duration readTimeout,
+            @Value("${weather.api.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${weather.api.circuit-breaker.open-duration:30s}") Duration openDuration,
+            @Value("${weather.api.refresh-threads:4}") int refreshThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            WeatherCache weatherCache,
+            MeterRegistry meterRegistry) {
+        HttpClient.Builder httpClient = HttpClient.newBuilder().connectTimeout(connectTimeout);
+        if (virtualThreads) {
+            // The JDK client runs its internal tasks on this executor, keep them off platform threads too
+            httpClient.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        // The JDK client waits for a response indefinitely unless told otherwise
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient.build());
+        requestFactory.setReadTimeout(readTimeout);
         this.restClient = RestClient.builder()
             .baseUrl(baseUrl)
+            .requestFactory(requestFactory)
             .build();
+        this.batchSize = batchSize;
+        this.weatherCache = weatherCache;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = new CircuitBreaker("open-meteo", failureThreshold, openDuration);
+        this.refreshExecutor = virtualThreads
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : new ThreadPoolExecutor(refreshThreads, refreshThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(REFRESH_QUEUE_CAPACITY),
+                Thread.ofPlatform().name("weather-refresh-", 0).daemon(true).factory());
+        log.info("Weather API: connectTimeout={}, readTimeout={}, circuit opens after {} failures for {}",
+            connectTimeout, readTimeout, failureThreshold, openDuration);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
     }
     
     final static String[] CURRENT_PARAM = {
@@ -33,7 +108,209 @@ public class WeatherService {
         "wind_direction_10m"
     };
 
-    public WeatherData getWeatherByCoordinates(double latitude, double longitude) {
+    public WeatherResult getWeatherByCoordinates(double latitude, double longitude) {
+        // Nearby coordinates share one grid cell, and the cell center is what gets fetched and cached
+        GridCell cell = weatherCache.cellOf(latitude, longitude);
+        WeatherData cached = weatherCache.get(cell);
+        if (cached != null) {
+            log.debug("Weather cache hit for lat={}, lon={}", latitude, longitude);
+            return WeatherResult.fresh(cached);
+        }
+        // Past its TTL the last known weather is served right away and refreshed in the background
+        WeatherResult stale = weatherCache.getStale(cell);
+        if (stale != null) {
+            refreshInBackground(List.of(cell));
+            return stale;
+        }
+        return WeatherResult.fresh(getWeatherForCell(cell));
+    }
+
+    /**
+     * Resolves weather for many coordinates at once. Coordinates are deduplicated by grid cell,
+     * served from the cache where possible (stale cells are refreshed in the background), and the
+     * remaining cells are fetched using Open-Meteo's multi-location query in chunks of
+     * {@code weather.api.batch-size}.
+     *
+     * @return weather results in the same order as the input, without data where the weather API failed
+     */
+    public List<WeatherResult> getWeatherByCoordinates(List<WeatherBatchRequest.Coordinate> coordinates) {
+        List<GridCell> cells = coordinates.stream()
+            .map(coordinate -> weatherCache.cellOf(coordinate.getLatitude(), coordinate.getLongitude()))
+            .toList();
+
+        Map<GridCell, WeatherResult> resolved = new HashMap<>();
+        List<GridCell> stale = new ArrayList<>();
+        List<GridCell> missing = new ArrayList<>();
+        for (GridCell cell : new LinkedHashSet<>(cells)) {
+            WeatherData cached = weatherCache.get(cell);
+            WeatherResult staleResult;
+            if (cached != null) {
+                resolved.put(cell, WeatherResult.fresh(cached));
+            } else if ((staleResult = weatherCache.getStale(cell)) != null) {
+                resolved.put(cell, staleResult);
+                stale.add(cell);
+            } else {
+                missing.add(cell);
+            }
+        }
+        if (!stale.isEmpty()) {
+            refreshInBackground(stale);
+        }
+
+        if (!missing.isEmpty()) {
+            Map<GridCell, WeatherData> fetched = fetchShared(missing);
+            missing.forEach(cell -> resolved.put(cell, WeatherResult.fresh(fetched.get(cell))));
+        }
+
+        log.debug("Resolved weather for {} coordinates ({} cells, {} stale, {} fetched)",
+            coordinates.size(), resolved.size(), stale.size(), missing.size());
+        return cells.stream().map(resolved::get).toList();
+    }
+
+    /**
+     * Fetches the cells in one upstream call regardless of what is cached, and caches the results
+     * as prefetched. Used to refresh entries before they expire.
+     *
+     * @param cells at most {@code weather.api.batch-size} cells
+     * @return the number of cells refreshed
+     */
+    public int prefetch(List<GridCell> cells) {
+        if (cells.size() == 1) {
+            // Open-Meteo answers a single location with an object instead of an array
+            GridCell cell = cells.get(0);
+            WeatherData weatherData = fetchWeather(cell.centerLatitude(), cell.centerLongitude());
+            if (weatherData == null) {
+                return 0;
+            }
+            weatherCache.putPrefetched(cell, weatherData);
+            return 1;
+        }
+        Map<GridCell, WeatherData> fetched = fetchWeatherBatch(cells);
+        fetched.forEach(weatherCache::putPrefetched);
+        return fetched.size();
+    }
+
+    /**
+     * How much longer the cached weather for the coordinates stays fresh, zero if it is expired
+     * or not cached
+     */
+    public Duration getRemainingTtl(double latitude, double longitude) {
+        long expiresAt = weatherCache.getExpiresAt(weatherCache.cellOf(latitude, longitude));
+        return Duration.ofMillis(Math.max(expiresAt - System.currentTimeMillis(), 0));
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    public long getRejectedCount() {
+        return circuitBreaker.getRejectedCount();
+    }
+
+    /**
+     * Queues a refresh of the cells that are not already being refreshed. When the queue is full
+     * the cells are skipped and keep being served stale until a later request retries.
+     */
+    private void refreshInBackground(List<GridCell> cells) {
+        List<GridCell> claimed = cells.stream().filter(refreshing::add).toList();
+        if (claimed.isEmpty()) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh(claimed);
+                } finally {
+                    claimed.forEach(refreshing::remove);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            claimed.forEach(refreshing::remove);
+            log.debug("Weather refresh queue full, skipping {} stale cells", claimed.size());
+        }
+    }
+
+    private void refresh(List<GridCell> cells) {
+        fetchShared(cells);
+    }
+
+    private WeatherData getWeatherForCell(GridCell cell) {
+        return fetchShared(List.of(cell)).get(cell);
+    }
+
+    /**
+     * Fetches and caches the cells, sharing upstream calls with concurrent requests. Cells another
+     * request is already fetching are joined. The rest are registered as in flight before the first
+     * upstream call, fetched in chunks of {@code weather.api.batch-size}, and completed from the
+     * results, so a request arriving mid-batch waits for the batch instead of calling upstream again.
+     *
+     * @return the weather per cell, null where the weather API failed
+     */
+    private Map<GridCell, WeatherData> fetchShared(List<GridCell> cells) {
+        Map<GridCell, WeatherData> result = new HashMap<>();
+        Map<GridCell, CompletableFuture<WeatherData>> claimed = new LinkedHashMap<>();
+        Map<GridCell, CompletableFuture<WeatherData>> joined = new HashMap<>();
+        for (GridCell cell : cells) {
+            CompletableFuture<WeatherData> call = new CompletableFuture<>();
+            CompletableFuture<WeatherData> existing = inFlight.putIfAbsent(cell, call);
+            if (existing != null) {
+                joined.put(cell, existing);
+            } else {
+                claimed.put(cell, call);
+            }
+        }
+
+        try {
+            List<GridCell> toFetch = new ArrayList<>(claimed.size());
+            for (GridCell cell : claimed.keySet()) {
+                // A previous call may have filled the cache between our miss and claiming the cell
+                WeatherData weatherData = weatherCache.peek(cell);
+                if (weatherData != null) {
+                    result.put(cell, weatherData);
+                } else {
+                    toFetch.add(cell);
+                }
+            }
+            for (int from = 0; from < toFetch.size(); from += batchSize) {
+                List<GridCell> chunk = toFetch.subList(from, Math.min(from + batchSize, toFetch.size()));
+                Map<GridCell, WeatherData> fetched;
+                if (chunk.size() == 1) {
+                    // Open-Meteo answers a single location with an object instead of an array
+                    GridCell cell = chunk.get(0);
+                    WeatherData weatherData = fetchWeather(cell.centerLatitude(), cell.centerLongitude());
+                    fetched = weatherData != null ? Map.of(cell, weatherData) : Map.of();
+                } else {
+                    fetched = fetchWeatherBatch(chunk);
+                }
+                fetched.forEach(weatherCache::put);
+                result.putAll(fetched);
+            }
+            claimed.forEach((cell, call) -> call.complete(result.get(cell)));
+        } catch (RuntimeException e) {
+            claimed.values().forEach(call -> call.completeExceptionally(e));
+            throw e;
+        } finally {
+            claimed.forEach(inFlight::remove);
+        }
+
+        // Joined only once our own cells are completed, so two batches waiting on each other cannot deadlock
+        if (!joined.isEmpty()) {
+            log.debug("Joining in-flight weather requests for {} cells", joined.size());
+            joined.forEach((cell, call) -> result.put(cell, call.join()));
+        }
+        return result;
+    }
+
+    private WeatherData fetchWeather(double latitude, double longitude) {
+        if (!circuitBreaker.tryAcquire()) {
+            log.debug("Weather circuit open, skipping request for lat={}, lon={}", latitude, longitude);
+            return null;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             log.debug("Fetching weather for coordinates: lat={}, lon={}", latitude, longitude);
 
@@ -49,29 +326,106 @@ public class WeatherService {
                 )
                 .retrieve()
                 .body(OpenMeteoResponse.class);
+            circuitBreaker.recordSuccess();
             
             if (response == null || response.getCurrentWeather() == null) {
                 log.warn("Weather API returned null response for lat={}, lon={}", latitude, longitude);
+                recordNullResponses(1);
+                stopTimer(sample, "single", "null");
                 return null;
             }
             
-            OpenMeteoResponse.CurrentWeather current = response.getCurrentWeather();
-            
-            WeatherData weatherData = WeatherData.builder()
-                .description(WeatherCodeMapper.getWeatherDescription(current.getWeathercode()))
-                .temperature(current.getTemperature())
-                .feelsLike(current.getTemperature())
-                .windSpeed(current.getWindspeed())
-                .humidity(current.getHumidity())
-                .condition(WeatherCodeMapper.getWeatherDescription(current.getWeathercode()))
-                .build();
+            WeatherData weatherData = toWeatherData(response.getCurrentWeather());
+            stopTimer(sample, "single", "success");
             
             log.info("Successfully fetched weather data for lat={}, lon={}", latitude, longitude);
             return weatherData;
             
         } catch (Exception e) {
+            circuitBreaker.recordFailure();
+            recordError(e);
+            stopTimer(sample, "single", "error");
             log.error("Error fetching weather data for lat={}, lon={}: {}", latitude, longitude, e.getMessage(), e);
             return null; // Return null on error, let caller handle gracefully
         }
     }
+
+    private Map<GridCell, WeatherData> fetchWeatherBatch(List<GridCell> cells) {
+        Map<GridCell, WeatherData> result = new HashMap<>();
+        if (!circuitBreaker.tryAcquire()) {
+            log.debug("Weather circuit open, skipping request for {} locations", cells.size());
+            return result;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            log.debug("Fetching weather for {} locations", cells.size());
+
+            String latitudes = String.join(",", cells.stream().map(cell -> String.valueOf(cell.centerLatitude())).toList());
+            String longitudes = String.join(",", cells.stream().map(cell -> String.valueOf(cell.centerLongitude())).toList());
+            String current_param = String.join(",", CURRENT_PARAM);
+
+            // For multiple locations Open-Meteo returns an array in the order of the query
+            OpenMeteoResponse[] responses = restClient.get()
+                .uri( uriBuilder -> uriBuilder
+                    .path("/forecast")
+                    .queryParam("latitude", latitudes)
+                    .queryParam("longitude", longitudes)
+                    .queryParam("current", current_param)
+                    .build()
+                )
+                .retrieve()
+                .body(OpenMeteoResponse[].class);
+            circuitBreaker.recordSuccess();
+
+            if (responses == null || responses.length != cells.size()) {
+                log.warn("Weather API returned {} results for {} locations",
+                    responses == null ? 0 : responses.length, cells.size());
+                recordNullResponses(cells.size());
+                stopTimer(sample, "batch", "null");
+                return result;
+            }
+
+            for (int i = 0; i < responses.length; i++) {
+                if (responses[i] == null || responses[i].getCurrentWeather() == null) {
+                    recordNullResponses(1);
+                    continue;
+                }
+                result.put(cells.get(i), toWeatherData(responses[i].getCurrentWeather()));
+            }
+            stopTimer(sample, "batch", "success");
+
+            log.info("Successfully fetched weather data for {} of {} locations", result.size(), cells.size());
+        } catch (Exception e) {
+            circuitBreaker.recordFailure();
+            recordError(e);
+            stopTimer(sample, "batch", "error");
+            log.error("Error fetching weather data for {} locations: {}", cells.size(), e.getMessage(), e);
+        }
+        return result;
+    }
+
+    // Upstream metrics: weather.api.requests (latency by call type and outcome),
+    // weather.api.errors (by exception) and weather.api.null.responses (per location left without data)
+    private void stopTimer(Timer.Sample sample, String type, String outcome) {
+        sample.stop(meterRegistry.timer("weather.api.requests", "type", type, "outcome", outcome));
+    }
+
+    private void recordError(Exception e) {
+        meterRegistry.counter("weather.api.errors", "exception", e.getClass().getSimpleName()).increment();
+    }
+
+    private void recordNullResponses(int locations) {
+        meterRegistry.counter("weather.api.null.responses").increment(locations);
+    }
+
+    private WeatherData toWeatherData(OpenMeteoResponse.CurrentWeather current) {
+        return WeatherData.builder()
+            .description(WeatherCodeMapper.getWeatherDescription(current.getWeathercode()))
+            .temperature(current.getTemperature())
+            .feelsLike(current.getTemperature())
+            .windSpeed(current.getWindspeed())
+            .humidity(current.getHumidity())
+            .condition(WeatherCodeMapper.getWeatherDescription(current.getWeathercode()))
+            .build();
+    }
 }
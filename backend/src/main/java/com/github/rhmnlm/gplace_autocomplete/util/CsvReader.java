@@ -0,0 +1,109 @@
+package com.github.rhmnlm.gplace_autocomplete.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one record at a time, the counterpart of {@link CsvWriter}. Quoted fields
+ * may contain commas, doubled quotes and line breaks; rows may end with CRLF or LF. A leading
+ * byte order mark is dropped. Only the current record is held in memory, up to
+ * {@code maxRecordChars} characters.
+ */
+public class CsvReader {
+
+    private static final char BOM = '\uFEFF';
+
+    private final Reader in;
+    private final int maxRecordChars;
+    private boolean started;
+    private boolean eof;
+    // Character read ahead while looking for the LF of a CRLF, -2 when none
+    private int pending = -2;
+
+    /**
+     * @param in read through as is, wrap it in a BufferedReader
+     */
+    public CsvReader(Reader in, int maxRecordChars) {
+        this.in = in;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /**
+     * The next record's fields, or null at the end of the input
+     *
+     * @throws IllegalArgumentException if a record is longer than the limit or a quote is not closed
+     */
+    public List<String> readRecord() throws IOException {
+        if (eof) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int recordChars = 0;
+        boolean quoted = false;
+        boolean any = false;
+        while (true) {
+            int c = read();
+            if (c == BOM && !started) {
+                started = true;
+                continue;
+            }
+            started = true;
+            if (c == -1) {
+                eof = true;
+                if (quoted) {
+                    throw new IllegalArgumentException("Unterminated quoted field");
+                }
+                if (!any && fields.isEmpty()) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            any = true;
+            if (++recordChars > maxRecordChars) {
+                throw new IllegalArgumentException("Record longer than " + maxRecordChars + " characters");
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        pending = next;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pending = next;
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return in.read();
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.rhmnlm.gplace_autocomplete.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point coordinate handling and the persisted geo cell key.
+ * The cell formula must stay in sync with V4__add_numeric_coordinates.sql:
+ * FLOOR(latitude * 10) * 10000 + FLOOR(longitude * 10), i.e. 0.1 degree cells.
+ */
+public class GeoCell {
+
+    // Matches DECIMAL(9,6): ~0.1 m precision
+    public static final int COORDINATE_SCALE = 6;
+
+    public static final BigDecimal CELL_SIZE_DEGREES = new BigDecimal("0.1");
+
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    // Longitude cell indexes span -1800..1800, so this stride keeps keys unique
+    private static final long LONGITUDE_STRIDE = 10_000L;
+
+    public static BigDecimal toFixedPoint(BigDecimal degrees) {
+        return degrees.setScale(COORDINATE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Text form of a stored coordinate as served by the API: the fixed-point value without the
+     * padding zeros of DECIMAL(9,6), so "35.671" reads back as it was saved
+     */
+    public static String format(BigDecimal degrees) {
+        return degrees != null ? degrees.stripTrailingZeros().toPlainString() : null;
+    }
+
+    public static long of(BigDecimal latitude, BigDecimal longitude) {
+        return key(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    public static long key(long latitudeIndex, long longitudeIndex) {
+        return latitudeIndex * LONGITUDE_STRIDE + longitudeIndex;
+    }
+
+    public static long cellIndex(BigDecimal degrees) {
+        return degrees.divide(CELL_SIZE_DEGREES, 0, RoundingMode.FLOOR).longValueExact();
+    }
+
+    public static long cellIndex(double degrees) {
+        return cellIndex(BigDecimal.valueOf(degrees));
+    }
+
+    /**
+     * Great-circle distance between two points using the haversine formula
+     */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+            * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
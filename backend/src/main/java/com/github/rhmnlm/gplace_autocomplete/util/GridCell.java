@@ -0,0 +1,37 @@
+package com.github.rhmnlm.gplace_autocomplete.util;
+
+/**
+ * A square cell of a latitude/longitude grid with a fixed size in degrees.
+ * Coordinates falling in the same cell share one cell, so nearby lookups can
+ * be cached and deduplicated against a single key.
+ */
+public record GridCell(long latIndex, long lonIndex, double sizeDegrees) {
+
+    private static final double COORDINATE_SCALE = 1_000_000d;
+
+    public static GridCell of(double latitude, double longitude, double sizeDegrees) {
+        return new GridCell(
+            (long) Math.floor(latitude / sizeDegrees),
+            (long) Math.floor(longitude / sizeDegrees),
+            sizeDegrees
+        );
+    }
+
+    /**
+     * Latitude of the cell center, rounded to 6 decimals (~0.1 m)
+     */
+    public double centerLatitude() {
+        return round((latIndex + 0.5) * sizeDegrees);
+    }
+
+    /**
+     * Longitude of the cell center, rounded to 6 decimals (~0.1 m)
+     */
+    public double centerLongitude() {
+        return round((lonIndex + 0.5) * sizeDegrees);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * COORDINATE_SCALE) / COORDINATE_SCALE;
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.rhmnlm.gplace_autocomplete.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Text normalization shared by the in-memory search indexes, so spellings that differ only in
+ * case, accents or spacing index and match alike
+ */
+public final class SearchText {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SearchText() {
+    }
+
+    /**
+     * Lower case without accents and with single spaces
+     */
+    public static String normalize(String text) {
+        String unaccented = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("");
+        return WHITESPACE.matcher(unaccented).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * True if a word starts at position i: a letter or digit not preceded by one
+     */
+    public static boolean isWordStart(String text, int i) {
+        return Character.isLetterOrDigit(text.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)));
+    }
+}
@@ -0,0 +1,222 @@
+package com.github.rhmnlm.gplace_autocomplete.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Substring search over short documents of a primary and a secondary field (a favorite's place
+ * description and category name). Every query term must occur in one of the fields; candidates
+ * come from intersecting the posting lists of the terms' trigrams, smallest first, and are then
+ * checked against the text, so a lookup reads postings instead of scanning every document.
+ *
+ * <p>Documents are numbered in insertion order and posting lists stay sorted by appending.
+ * Replacing or removing a document leaves its old postings behind until enough have piled up to
+ * rebuild. Not thread-safe.
+ */
+public class TrigramIndex {
+
+    public static final int MIN_TERM_LENGTH = 3;
+
+    private static final Comparator<Match> RANKING = Comparator
+        .comparingInt(Match::score).reversed()
+        .thenComparingInt(Match::length)
+        // Most recently added first
+        .thenComparing(Comparator.comparingInt(Match::doc).reversed());
+
+    // Document number to document, null once replaced or removed
+    private final List<Doc> docs = new ArrayList<>();
+    private final Map<UUID, Integer> docNumbers = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private int removed;
+
+    /**
+     * Adds the document, or replaces it if the id is already indexed
+     */
+    public void put(UUID id, String primary, String secondary) {
+        Integer previous = docNumbers.get(id);
+        if (previous != null) {
+            docs.set(previous, null);
+            removed++;
+        }
+        Doc doc = new Doc(id, normalizeOrEmpty(primary), normalizeOrEmpty(secondary));
+        int number = docs.size();
+        docs.add(doc);
+        docNumbers.put(id, number);
+        addPostings(doc, number);
+        if (removed > 1024 && removed > docNumbers.size()) {
+            rebuild();
+        }
+    }
+
+    public boolean remove(UUID id) {
+        Integer number = docNumbers.remove(id);
+        if (number == null) {
+            return false;
+        }
+        docs.set(number, null);
+        removed++;
+        return true;
+    }
+
+    public int size() {
+        return docNumbers.size();
+    }
+
+    /**
+     * True if the query has a term of at least {@link #MIN_TERM_LENGTH} characters, the shortest
+     * that can be looked up
+     */
+    public static boolean isSearchable(String query) {
+        for (String term : SearchText.normalize(query).split(" ")) {
+            if (term.length() >= MIN_TERM_LENGTH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ids of the documents containing every term of the query, best first: terms found in the
+     * primary field and at the start of a word rank higher, then shorter and newer documents.
+     * Terms shorter than {@link #MIN_TERM_LENGTH} only narrow down what the longer ones match.
+     *
+     * @return the matching ids, empty if the query has no term of at least {@link #MIN_TERM_LENGTH} characters
+     */
+    public List<UUID> search(String query) {
+        String[] terms = SearchText.normalize(query).split(" ");
+        Set<Long> grams = new LinkedHashSet<>();
+        for (String term : terms) {
+            for (int i = 0; i + MIN_TERM_LENGTH <= term.length(); i++) {
+                grams.add(trigram(term, i));
+            }
+        }
+        if (grams.isEmpty()) {
+            return List.of();
+        }
+
+        Postings[] lists = new Postings[grams.size()];
+        int n = 0;
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return List.of();
+            }
+            lists[n++] = list;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        List<Match> matches = new ArrayList<>();
+        Postings smallest = lists[0];
+        candidates:
+        for (int c = 0; c < smallest.size; c++) {
+            int number = smallest.docs[c];
+            for (int l = 1; l < lists.length; l++) {
+                if (!lists[l].contains(number)) {
+                    continue candidates;
+                }
+            }
+            Doc doc = docs.get(number);
+            if (doc != null) {
+                int score = score(doc, terms);
+                if (score > 0) {
+                    matches.add(new Match(number, score, doc.primary().length()));
+                }
+            }
+        }
+        matches.sort(RANKING);
+        return matches.stream().map(match -> docs.get(match.doc()).id()).toList();
+    }
+
+    // 0 if a term occurs in neither field
+    private static int score(Doc doc, String[] terms) {
+        int score = 0;
+        for (String term : terms) {
+            int termScore = Math.max(fieldScore(doc.primary(), term) * 2, fieldScore(doc.secondary(), term));
+            if (termScore == 0) {
+                return 0;
+            }
+            score += termScore;
+        }
+        return score;
+    }
+
+    // 3 at the start of a word, 1 inside one, 0 if absent
+    private static int fieldScore(String field, String term) {
+        if (term.isEmpty()) {
+            return 1;
+        }
+        int best = 0;
+        for (int at = field.indexOf(term); at >= 0; at = field.indexOf(term, at + 1)) {
+            if (SearchText.isWordStart(field, at)) {
+                return 3;
+            }
+            best = 1;
+        }
+        return best;
+    }
+
+    private void addPostings(Doc doc, int number) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (String field : new String[] { doc.primary(), doc.secondary() }) {
+            for (int i = 0; i + MIN_TERM_LENGTH <= field.length(); i++) {
+                grams.add(trigram(field, i));
+            }
+        }
+        for (long gram : grams) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(number);
+        }
+    }
+
+    // Renumbers the live documents, dropping the postings of replaced and removed ones
+    private void rebuild() {
+        List<Doc> live = docs.stream().filter(doc -> doc != null).toList();
+        docs.clear();
+        docNumbers.clear();
+        postings.clear();
+        removed = 0;
+        for (Doc doc : live) {
+            int number = docs.size();
+            docs.add(doc);
+            docNumbers.put(doc.id(), number);
+            addPostings(doc, number);
+        }
+    }
+
+    private static long trigram(String text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+
+    private static String normalizeOrEmpty(String text) {
+        return text != null ? SearchText.normalize(text) : "";
+    }
+
+    private record Doc(UUID id, String primary, String secondary) {
+    }
+
+    private record Match(int doc, int score, int length) {
+    }
+
+    // Sorted document numbers, appended in increasing order
+    private static final class Postings {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        boolean contains(int doc) {
+            return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+-- Flyway migration to support keyset (seek) pagination of location listings
+-- Listings are ordered by (created_at DESC, id DESC) within a client, so a composite
+-- index lets each page seek directly to the cursor row instead of scanning an offset
+
+CREATE INDEX IX_visited_location_client_created_at_id
+    ON visited_location(client_id_fk, created_at DESC, id DESC);
+
+CREATE INDEX IX_faved_location_client_created_at_id
+    ON faved_location(client_id_fk, created_at DESC, id DESC);
@@ -0,0 +1,75 @@
+-- Flyway migration to add fixed-point coordinates and a spatial grid cell to locations
+-- The original VARCHAR latitude/longitude columns are kept for existing readers.
+-- geo_cell = FLOOR(latitude * 10) * 10000 + FLOOR(longitude * 10), a 0.1 degree grid
+-- (see GeoCell.java). Runs outside a transaction so each backfill batch commits on its own.
+
+ALTER TABLE visited_location ADD
+    latitude_value DECIMAL(9,6) NULL,
+    longitude_value DECIMAL(9,6) NULL,
+    geo_cell BIGINT NULL;
+
+ALTER TABLE faved_location ADD
+    latitude_value DECIMAL(9,6) NULL,
+    longitude_value DECIMAL(9,6) NULL,
+    geo_cell BIGINT NULL;
+GO
+
+-- Backfill existing rows in batches to keep locks and log growth small. Each batch is the next
+-- range of the clustered primary key, so it seeks past the rows already converted instead of
+-- rescanning them. Rows whose text coordinates cannot be parsed are left NULL
+DECLARE @batchSize INT = 5000;
+-- The smallest uniqueidentifier, below every UUIDv7 id
+DECLARE @lastId UNIQUEIDENTIFIER = '00000000-0000-0000-0000-000000000000';
+DECLARE @batchEnd UNIQUEIDENTIFIER;
+
+WHILE 1 = 1
+BEGIN
+    SET @batchEnd = NULL;
+    SELECT TOP (1) @batchEnd = b.id
+    FROM (SELECT TOP (@batchSize) id FROM visited_location WHERE id > @lastId ORDER BY id) b
+    ORDER BY b.id DESC;
+    IF @batchEnd IS NULL BREAK;
+
+    UPDATE v
+    SET latitude_value = c.lat,
+        longitude_value = c.lon,
+        geo_cell = CAST(FLOOR(c.lat * 10) AS BIGINT) * 10000 + CAST(FLOOR(c.lon * 10) AS BIGINT)
+    FROM visited_location v
+    CROSS APPLY (SELECT TRY_CAST(v.latitude AS DECIMAL(9,6)) AS lat,
+                        TRY_CAST(v.longitude AS DECIMAL(9,6)) AS lon) c
+    WHERE v.id > @lastId AND v.id <= @batchEnd
+      AND v.latitude_value IS NULL AND c.lat IS NOT NULL AND c.lon IS NOT NULL;
+
+    SET @lastId = @batchEnd;
+END
+
+SET @lastId = '00000000-0000-0000-0000-000000000000';
+
+WHILE 1 = 1
+BEGIN
+    SET @batchEnd = NULL;
+    SELECT TOP (1) @batchEnd = b.id
+    FROM (SELECT TOP (@batchSize) id FROM faved_location WHERE id > @lastId ORDER BY id) b
+    ORDER BY b.id DESC;
+    IF @batchEnd IS NULL BREAK;
+
+    UPDATE f
+    SET latitude_value = c.lat,
+        longitude_value = c.lon,
+        geo_cell = CAST(FLOOR(c.lat * 10) AS BIGINT) * 10000 + CAST(FLOOR(c.lon * 10) AS BIGINT)
+    FROM faved_location f
+    CROSS APPLY (SELECT TRY_CAST(f.latitude AS DECIMAL(9,6)) AS lat,
+                        TRY_CAST(f.longitude AS DECIMAL(9,6)) AS lon) c
+    WHERE f.id > @lastId AND f.id <= @batchEnd
+      AND f.latitude_value IS NULL AND c.lat IS NOT NULL AND c.lon IS NOT NULL;
+
+    SET @lastId = @batchEnd;
+END
+GO
+
+-- Create indexes for proximity lookups within a client
+CREATE INDEX IX_visited_location_client_geo_cell
+    ON visited_location(client_id_fk, geo_cell) INCLUDE (latitude_value, longitude_value);
+
+CREATE INDEX IX_faved_location_client_geo_cell
+    ON faved_location(client_id_fk, geo_cell) INCLUDE (latitude_value, longitude_value);
@@ -0,0 +1,36 @@
+-- Flyway migration to aggregate visits per client and place
+-- visited_location keeps one row per visit; visited_place keeps one row per distinct place with
+-- its visit count and first/last visit, maintained incrementally by the application on every visit.
+-- A place is identified by its description and fixed-point coordinates within a client.
+
+CREATE TABLE visited_place (
+    id UNIQUEIDENTIFIER NOT NULL PRIMARY KEY,
+    client_id_fk UNIQUEIDENTIFIER NOT NULL,
+    place_desc VARCHAR(255) NOT NULL,
+    latitude_value DECIMAL(9,6) NOT NULL,
+    longitude_value DECIMAL(9,6) NOT NULL,
+    visit_count BIGINT NOT NULL,
+    first_visited_at DATETIME2 NOT NULL,
+    last_visited_at DATETIME2 NOT NULL,
+    CONSTRAINT FK_visited_place_client FOREIGN KEY (client_id_fk)
+        REFERENCES client(client_id)
+);
+
+-- Lookup used by the incremental update, also guarantees one row per place
+CREATE UNIQUE INDEX UX_visited_place_client_place
+    ON visited_place(client_id_fk, place_desc, latitude_value, longitude_value);
+
+-- Serves "most visited places" for a client straight from the index
+CREATE INDEX IX_visited_place_client_visit_count
+    ON visited_place(client_id_fk, visit_count DESC, last_visited_at DESC)
+    INCLUDE (place_desc, latitude_value, longitude_value, first_visited_at);
+
+-- Backfill from existing visits. Rows whose coordinates could not be parsed in V4 are skipped.
+-- Ids are random here (NEWID); rows created by the application use UUIDv7.
+INSERT INTO visited_place (id, client_id_fk, place_desc, latitude_value, longitude_value,
+                           visit_count, first_visited_at, last_visited_at)
+SELECT NEWID(), client_id_fk, place_desc, latitude_value, longitude_value,
+       COUNT_BIG(*), MIN(created_at), MAX(created_at)
+FROM visited_location
+WHERE latitude_value IS NOT NULL AND longitude_value IS NOT NULL
+GROUP BY client_id_fk, place_desc, latitude_value, longitude_value;
@@ -0,0 +1,63 @@
+-- Schema for the perf profile (embedded H2 in MSSQLServer mode)
+-- Mirrors db/migration V1-V4 in portable DDL, since the T-SQL batches there do not run on H2.
+-- Keep in sync when a migration changes tables or indexes used by the application.
+
+CREATE TABLE client (
+    client_id UUID NOT NULL PRIMARY KEY,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE category (
+    id UUID NOT NULL PRIMARY KEY,
+    category_name VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    client_id_fk UUID NOT NULL,
+    CONSTRAINT FK_category_client FOREIGN KEY (client_id_fk)
+        REFERENCES client(client_id),
+    CONSTRAINT UQ_category_name_per_client UNIQUE (category_name, client_id_fk)
+);
+
+CREATE TABLE visited_location (
+    id UUID NOT NULL PRIMARY KEY,
+    place_desc VARCHAR(255) NOT NULL,
+    latitude VARCHAR(64) NOT NULL,
+    longitude VARCHAR(64) NOT NULL,
+    latitude_value DECIMAL(9,6) NULL,
+    longitude_value DECIMAL(9,6) NULL,
+    geo_cell BIGINT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    client_id_fk UUID NOT NULL,
+    CONSTRAINT FK_visited_location_client FOREIGN KEY (client_id_fk)
+        REFERENCES client(client_id)
+);
+
+CREATE TABLE faved_location (
+    id UUID NOT NULL PRIMARY KEY,
+    place_desc VARCHAR(255) NOT NULL,
+    latitude VARCHAR(64) NOT NULL,
+    longitude VARCHAR(64) NOT NULL,
+    latitude_value DECIMAL(9,6) NULL,
+    longitude_value DECIMAL(9,6) NULL,
+    geo_cell BIGINT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    client_id_fk UUID NOT NULL,
+    category_id_fk UUID NULL,
+    CONSTRAINT FK_faved_location_client FOREIGN KEY (client_id_fk)
+        REFERENCES client(client_id),
+    CONSTRAINT FK_faved_location_category FOREIGN KEY (category_id_fk)
+        REFERENCES category(id)
+);
+
+CREATE INDEX IX_category_client_id_fk ON category(client_id_fk);
+
+CREATE INDEX IX_visited_location_client_id_fk ON visited_location(client_id_fk);
+CREATE INDEX IX_visited_location_created_at ON visited_location(created_at DESC);
+CREATE INDEX IX_visited_location_client_created_at_id ON visited_location(client_id_fk, created_at DESC, id DESC);
+CREATE INDEX IX_visited_location_client_geo_cell ON visited_location(client_id_fk, geo_cell);
+
+CREATE INDEX IX_faved_location_client_id_fk ON faved_location(client_id_fk);
+CREATE INDEX IX_faved_location_created_at ON faved_location(created_at DESC);
+CREATE INDEX IX_faved_location_category_id_fk ON faved_location(category_id_fk);
+CREATE INDEX IX_faved_location_client_created_at_id ON faved_location(client_id_fk, created_at DESC, id DESC);
+CREATE INDEX IX_faved_location_client_geo_cell ON faved_location(client_id_fk, geo_cell);
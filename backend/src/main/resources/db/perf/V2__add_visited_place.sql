@@ -0,0 +1,20 @@
+-- Portable copy of db/migration V5 for the perf profile
+
+CREATE TABLE visited_place (
+    id UUID NOT NULL PRIMARY KEY,
+    client_id_fk UUID NOT NULL,
+    place_desc VARCHAR(255) NOT NULL,
+    latitude_value DECIMAL(9,6) NOT NULL,
+    longitude_value DECIMAL(9,6) NOT NULL,
+    visit_count BIGINT NOT NULL,
+    first_visited_at TIMESTAMP NOT NULL,
+    last_visited_at TIMESTAMP NOT NULL,
+    CONSTRAINT FK_visited_place_client FOREIGN KEY (client_id_fk)
+        REFERENCES client(client_id)
+);
+
+CREATE UNIQUE INDEX UX_visited_place_client_place
+    ON visited_place(client_id_fk, place_desc, latitude_value, longitude_value);
+
+CREATE INDEX IX_visited_place_client_visit_count
+    ON visited_place(client_id_fk, visit_count DESC, last_visited_at DESC);
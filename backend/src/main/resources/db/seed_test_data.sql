@@ -95,6 +95,34 @@ INSERT INTO faved_location (id, place_desc, latitude, longitude, created_at, cli
 
 PRINT 'Inserted 30 faved locations';
 
+-- Populate numeric coordinates and geo cells (V4) for the seeded rows
+UPDATE visited_location
+SET latitude_value = CAST(latitude AS DECIMAL(9,6)),
+    longitude_value = CAST(longitude AS DECIMAL(9,6)),
+    geo_cell = CAST(FLOOR(CAST(latitude AS DECIMAL(9,6)) * 10) AS BIGINT) * 10000
+        + CAST(FLOOR(CAST(longitude AS DECIMAL(9,6)) * 10) AS BIGINT)
+WHERE client_id_fk = @testClientId AND latitude_value IS NULL;
+
+UPDATE faved_location
+SET latitude_value = CAST(latitude AS DECIMAL(9,6)),
+    longitude_value = CAST(longitude AS DECIMAL(9,6)),
+    geo_cell = CAST(FLOOR(CAST(latitude AS DECIMAL(9,6)) * 10) AS BIGINT) * 10000
+        + CAST(FLOOR(CAST(longitude AS DECIMAL(9,6)) * 10) AS BIGINT)
+WHERE client_id_fk = @testClientId AND latitude_value IS NULL;
+
+PRINT 'Populated numeric coordinates';
+
+-- Aggregate the seeded visits per place (V5)
+INSERT INTO visited_place (id, client_id_fk, place_desc, latitude_value, longitude_value,
+                           visit_count, first_visited_at, last_visited_at)
+SELECT NEWID(), client_id_fk, place_desc, latitude_value, longitude_value,
+       COUNT_BIG(*), MIN(created_at), MAX(created_at)
+FROM visited_location
+WHERE client_id_fk = @testClientId AND latitude_value IS NOT NULL
+GROUP BY client_id_fk, place_desc, latitude_value, longitude_value;
+
+PRINT 'Aggregated visited places';
+
 -- Output the test client ID for use in Postman
 SELECT
     @testClientId AS test_client_id,
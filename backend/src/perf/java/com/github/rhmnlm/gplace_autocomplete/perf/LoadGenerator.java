@@ -0,0 +1,387 @@
+package com.github.rhmnlm.gplace_autocomplete.perf;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load generator for the backend API. Seeds a set of clients with categories and
+ * locations, then keeps {@code concurrency} virtual threads issuing a weighted mix of the
+ * requests from postman_collection.json and reports throughput and latency percentiles per
+ * operation. Meant to run against the perf profile (embedded database, stubbed weather API).
+ *
+ * <p>Settings are read from system properties (see {@code ./gradlew loadTest}):
+ * load.baseUrl, load.clients, load.seedLocations, load.concurrency, load.warmup, load.duration
+ * and load.mix, a comma-separated list of operation=weight pairs.
+ */
+public class LoadGenerator {
+
+    private static final String DEFAULT_MIX = "listVisited=20,listFaved=15,listFavedByCategory=5,visitedCursor=5,topVisited=3,"
+        + "listCategories=10,saveVisited=15,saveFaved=5,assignCategory=3,identify=5,weather=15,nearby=2,suggest=5,searchFaved=3";
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-fA-F-]{36})\"");
+    private static final Pattern CLIENT_ID = Pattern.compile("\"clientId\"\\s*:\\s*\"([0-9a-fA-F-]{36})\"");
+
+    // Centers users cluster around, visits are spread a few kilometers from them
+    private static final double[][] CITIES = {
+        { 35.6762, 139.6503 }, { 48.8566, 2.3522 }, { 3.1390, 101.6869 },
+        { 40.7128, -74.0060 }, { -33.8688, 151.2093 }, { 51.5074, -0.1278 }
+    };
+
+    private final String baseUrl;
+    private final int clientCount;
+    private final int seedLocations;
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+    private final HttpClient http;
+
+    private final Map<String, Function<Fixture, HttpRequest>> operations = new LinkedHashMap<>();
+    private final String[] mixNames;
+    private final int[] mixCumulativeWeights;
+    private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+    private final List<Fixture> fixtures = new CopyOnWriteArrayList<>();
+
+    private volatile boolean recording;
+
+    public LoadGenerator(String baseUrl, int clientCount, int seedLocations, int concurrency,
+                         Duration warmup, Duration duration, String mix) {
+        this.baseUrl = baseUrl;
+        this.clientCount = clientCount;
+        this.seedLocations = seedLocations;
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+        registerOperations();
+
+        Map<String, Integer> weights = parseMix(mix);
+        this.mixNames = weights.keySet().toArray(String[]::new);
+        this.mixCumulativeWeights = new int[mixNames.length];
+        int total = 0;
+        for (int i = 0; i < mixNames.length; i++) {
+            total += weights.get(mixNames[i]);
+            mixCumulativeWeights[i] = total;
+            recorders.put(mixNames[i], new Recorder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGenerator generator = new LoadGenerator(
+            System.getProperty("load.baseUrl", "http://localhost:8080"),
+            Integer.getInteger("load.clients", 50),
+            Integer.getInteger("load.seedLocations", 40),
+            Integer.getInteger("load.concurrency", 64),
+            Duration.parse("PT" + System.getProperty("load.warmup", "15s")),
+            Duration.parse("PT" + System.getProperty("load.duration", "60s")),
+            System.getProperty("load.mix", DEFAULT_MIX));
+        generator.seed();
+        generator.run();
+    }
+
+    private void registerOperations() {
+        operations.put("identify", f -> post("/api/client/identify", "{\"clientId\":\"" + f.clientId + "\"}"));
+        operations.put("listCategories", f -> get("/api/categories?clientId=" + f.clientId + "&page=0&size=10"));
+        operations.put("saveVisited", f -> post("/api/locations/visited", locationJson(f, "Visited place", null)));
+        operations.put("listVisited", f -> get("/api/locations/visited?clientId=" + f.clientId + "&page=" + randomPage() + "&size=10"));
+        operations.put("visitedCursor", f -> get("/api/locations/visited/cursor?clientId=" + f.clientId + "&size=10"));
+        operations.put("topVisited", f -> get("/api/locations/visited/top?clientId=" + f.clientId + "&limit=10"));
+        operations.put("saveFaved", f -> post("/api/locations/faved", locationJson(f, "Faved place", f.categoryId)));
+        operations.put("listFaved", f -> get("/api/locations/faved?clientId=" + f.clientId + "&page=" + randomPage() + "&size=10"));
+        operations.put("listFavedByCategory", f -> get("/api/locations/faved/category/" + f.categoryId
+            + "?clientId=" + f.clientId + "&page=0&size=10"));
+        operations.put("assignCategory", f -> put("/api/locations/faved/" + f.randomFavedId() + "/category",
+            "{\"clientId\":\"" + f.clientId + "\",\"categoryId\":\"" + f.categoryId + "\"}"));
+        operations.put("weather", f -> {
+            double[] point = f.randomPoint();
+            return get("/api/locations/weather?latitude=" + point[0] + "&longitude=" + point[1]);
+        });
+        operations.put("nearby", f -> get("/api/locations/faved/nearby?clientId=" + f.clientId
+            + "&lat=" + f.home[0] + "&lon=" + f.home[1] + "&radiusMeters=10000"));
+        operations.put("suggest", f -> get("/api/locations/suggest?clientId=" + f.clientId + "&prefix=pla&limit=5"));
+        // Mid-word, so a LIKE search could not use an index either
+        operations.put("searchFaved", f -> get("/api/locations/faved/search?clientId=" + f.clientId + "&q=aved&page=0&size=10"));
+    }
+
+    /**
+     * Creates the clients the run works with, each with one category and seedLocations
+     * visited and faved locations
+     */
+    void seed() throws InterruptedException {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clientCount; i++) {
+                int index = i;
+                executor.submit(() -> {
+                    try {
+                        fixtures.add(seedClient(index));
+                    } catch (Exception e) {
+                        System.err.println("Seeding client " + index + " failed: " + e.getMessage());
+                    }
+                });
+            }
+        }
+        if (fixtures.isEmpty()) {
+            throw new IllegalStateException("No client could be seeded, is the backend running at " + baseUrl + "?");
+        }
+        System.out.printf("Seeded %d clients with %d visited and %d faved locations each in %d ms%n",
+            fixtures.size(), seedLocations, seedLocations, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Fixture seedClient(int index) throws Exception {
+        String identified = send(post("/api/client/identify", "{}"));
+        Fixture fixture = new Fixture(UUID.fromString(match(CLIENT_ID, identified)), CITIES[index % CITIES.length]);
+
+        String category = send(post("/api/categories",
+            "{\"clientId\":\"" + fixture.clientId + "\",\"categoryName\":\"Load test " + index + "\"}"));
+        fixture.categoryId = UUID.fromString(match(ID, category));
+
+        for (int i = 0; i < seedLocations; i++) {
+            send(post("/api/locations/visited", locationJson(fixture, "Seed visit " + i, null)));
+            String faved = send(post("/api/locations/faved",
+                locationJson(fixture, "Seed favorite " + i, i % 2 == 0 ? fixture.categoryId : null)));
+            fixture.favedIds.add(UUID.fromString(match(ID, faved)));
+        }
+        return fixture;
+    }
+
+    void run() throws InterruptedException {
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long end = warmupEnd + duration.toNanos();
+        System.out.printf("Running %d workers: %d s warmup, %d s measured%n",
+            concurrency, warmup.toSeconds(), duration.toSeconds());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                executor.submit(() -> work(end));
+            }
+            long sleepNanos = warmupEnd - System.nanoTime();
+            if (sleepNanos > 0) {
+                Thread.sleep(Duration.ofNanos(sleepNanos));
+            }
+            recording = true;
+        }
+        report(duration.toNanos() / 1e9);
+    }
+
+    private void work(long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < end) {
+            String name = pickOperation(random);
+            Fixture fixture = fixtures.get(random.nextInt(fixtures.size()));
+            HttpRequest request = operations.get(name).apply(fixture);
+
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() < 400;
+            } catch (Exception e) {
+                ok = false;
+            }
+            if (recording) {
+                recorders.get(name).record(System.nanoTime() - start, ok);
+            }
+        }
+    }
+
+    private void report(double seconds) {
+        System.out.printf("%n%-20s %9s %7s %9s %9s %9s %9s %9s%n",
+            "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        Recorder all = new Recorder();
+        for (Map.Entry<String, Recorder> entry : recorders.entrySet()) {
+            printRow(entry.getKey(), entry.getValue(), seconds);
+            all.addAll(entry.getValue());
+        }
+        printRow("TOTAL", all, seconds);
+    }
+
+    private static void printRow(String name, Recorder recorder, double seconds) {
+        long[] sorted = recorder.sortedSamples();
+        System.out.printf("%-20s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+            name, sorted.length, recorder.errors, sorted.length / seconds,
+            percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+            sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private String pickOperation(ThreadLocalRandom random) {
+        int roll = random.nextInt(mixCumulativeWeights[mixCumulativeWeights.length - 1]);
+        for (int i = 0; i < mixCumulativeWeights.length; i++) {
+            if (roll < mixCumulativeWeights[i]) {
+                return mixNames[i];
+            }
+        }
+        return mixNames[mixNames.length - 1];
+    }
+
+    private Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String pair : mix.split(",")) {
+            String[] parts = pair.trim().split("=");
+            if (!operations.containsKey(parts[0])) {
+                throw new IllegalArgumentException("Unknown operation '" + parts[0] + "', expected one of " + operations.keySet());
+            }
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                weights.put(parts[0], weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("load.mix must give at least one operation a positive weight");
+        }
+        return weights;
+    }
+
+    private static int randomPage() {
+        // Mostly the first page, like a user opening a list, sometimes deeper
+        return ThreadLocalRandom.current().nextInt(10) < 8 ? 0 : ThreadLocalRandom.current().nextInt(1, 4);
+    }
+
+    private static String locationJson(Fixture fixture, String placeDesc, UUID categoryId) {
+        double[] point = fixture.randomPoint();
+        return "{\"clientId\":\"" + fixture.clientId + "\",\"placeDesc\":\"" + placeDesc + "\","
+            + "\"latitude\":\"" + String.format(Locale.ROOT, "%.6f", point[0]) + "\",\"longitude\":\"" + String.format(Locale.ROOT, "%.6f", point[1]) + "\""
+            + (categoryId != null ? ",\"categoryId\":\"" + categoryId + "\"" : "") + "}";
+    }
+
+    private String send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private static String match(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected response: " + body);
+        }
+        return matcher.group(1);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    private HttpRequest put(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .PUT(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    /**
+     * A seeded client and what the requests need to reference
+     */
+    private static class Fixture {
+        final UUID clientId;
+        final double[] home;
+        final List<UUID> favedIds = new ArrayList<>();
+        UUID categoryId;
+
+        Fixture(UUID clientId, double[] home) {
+            this.clientId = clientId;
+            this.home = home;
+        }
+
+        // Within roughly 5 km of home, so weather lookups mix cache hits and misses
+        double[] randomPoint() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return new double[] { home[0] + random.nextDouble(-0.05, 0.05), home[1] + random.nextDouble(-0.05, 0.05) };
+        }
+
+        UUID randomFavedId() {
+            return favedIds.get(ThreadLocalRandom.current().nextInt(favedIds.size()));
+        }
+    }
+
+    /**
+     * Latency samples of one operation, in nanoseconds
+     */
+    private static class Recorder {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long[] samples = new long[1024];
+        private int size;
+        private long errors;
+
+        void record(long nanos, boolean ok) {
+            lock.lock();
+            try {
+                if (size == samples.length) {
+                    samples = Arrays.copyOf(samples, size * 2);
+                }
+                samples[size++] = nanos;
+                if (!ok) {
+                    errors++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void addAll(Recorder other) {
+            long[] otherSamples = other.sortedSamples();
+            lock.lock();
+            try {
+                for (long sample : otherSamples) {
+                    if (size == samples.length) {
+                        samples = Arrays.copyOf(samples, size * 2);
+                    }
+                    samples[size++] = sample;
+                }
+                errors += other.errors;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long[] sortedSamples() {
+            long[] copy;
+            lock.lock();
+            try {
+                copy = Arrays.copyOf(samples, size);
+            } finally {
+                lock.unlock();
+            }
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
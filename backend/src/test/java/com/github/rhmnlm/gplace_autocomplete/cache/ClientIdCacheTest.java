@@ -0,0 +1,59 @@
+package com.github.rhmnlm.gplace_autocomplete.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class ClientIdCacheTest {
+
+    @Test
+    void bloomFilterIsIgnoredUnlessNegativesAreTrusted() {
+        ClientIdCache cache = new ClientIdCache(100, 1000, 0.01, false, Duration.ZERO);
+        cache.markWarmed();
+
+        assertThat(cache.isDefinitelyUnknown(UUID.randomUUID())).isFalse();
+    }
+
+    @Test
+    void trustedBloomFilterRejectsOnlyOnceWarmed() {
+        ClientIdCache cache = new ClientIdCache(100, 1000, 0.01, true, Duration.ZERO);
+        UUID existing = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        cache.add(existing);
+
+        assertThat(cache.isDefinitelyUnknown(missing)).isFalse();
+        cache.markWarmed();
+        assertThat(cache.isDefinitelyUnknown(missing)).isTrue();
+        assertThat(cache.isDefinitelyUnknown(existing)).isFalse();
+        assertThat(cache.getBloomRejectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void databaseNegativeIsReusedUntilItExpires() throws InterruptedException {
+        ClientIdCache cache = new ClientIdCache(100, 1000, 0.01, false, Duration.ofMillis(50));
+        UUID clientId = UUID.randomUUID();
+
+        assertThat(cache.isDefinitelyUnknown(clientId)).isFalse();
+        cache.addUnknown(clientId);
+        assertThat(cache.isDefinitelyUnknown(clientId)).isTrue();
+
+        Thread.sleep(60);
+        assertThat(cache.isDefinitelyUnknown(clientId)).isFalse();
+        assertThat(cache.getNegativeHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void addingAClientClearsItsNegative() {
+        ClientIdCache cache = new ClientIdCache(100, 1000, 0.01, false, Duration.ofMinutes(1));
+        UUID clientId = UUID.randomUUID();
+        cache.addUnknown(clientId);
+
+        cache.add(clientId);
+
+        assertThat(cache.isDefinitelyUnknown(clientId)).isFalse();
+        assertThat(cache.isKnown(clientId)).isTrue();
+    }
+}
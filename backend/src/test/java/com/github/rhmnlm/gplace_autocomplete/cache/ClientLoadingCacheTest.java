@@ -0,0 +1,195 @@
+package com.github.rhmnlm.gplace_autocomplete.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class ClientLoadingCacheTest {
+
+    // Values are lists of writes, weighing one per element
+    private static final ClientLoadingCache.Merge<List<String>, String> APPEND = (value, writes) -> {
+        value.addAll(writes);
+        return value.size();
+    };
+
+    private final UUID clientId = UUID.randomUUID();
+    private final ClientLoadingCache<List<String>, String> cache = new ClientLoadingCache<>(10_000);
+
+    @Test
+    void clientIsNotServedUntilLoaded() {
+        assertThat(cache.get(clientId)).isNull();
+
+        long ticket = cache.beginLoad(clientId);
+        assertThat(ticket).isPositive();
+        assertThat(cache.beginLoad(clientId)).isEqualTo(-1);
+        assertThat(cache.get(clientId)).isNull();
+        String first = cache.read(clientId, List::getFirst);
+        assertThat(first).isNull();
+
+        assertThat(cache.completeLoad(clientId, ticket, values("loaded"), APPEND)).containsExactly("loaded");
+
+        assertThat(cache.get(clientId)).containsExactly("loaded");
+        first = cache.read(clientId, List::getFirst);
+        assertThat(first).isEqualTo("loaded");
+        assertThat(cache.beginLoad(clientId)).isEqualTo(-1);
+        assertThat(cache.getWeight()).isEqualTo(1);
+    }
+
+    @Test
+    void writesCommittedDuringALoadAreMergedIntoIt() {
+        long ticket = cache.beginLoad(clientId);
+        cache.write(clientId, List.of("first"), APPEND);
+        cache.write(clientId, List.of("second"), APPEND);
+
+        cache.completeLoad(clientId, ticket, values("loaded"), APPEND);
+        cache.write(clientId, List.of("third"), APPEND);
+
+        assertThat(cache.get(clientId)).containsExactly("loaded", "first", "second", "third");
+        assertThat(cache.getWeight()).isEqualTo(4);
+    }
+
+    @Test
+    void writesForClientsThatAreNotCachedAreIgnored() {
+        cache.write(clientId, List.of("write"), APPEND);
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getWeight()).isZero();
+    }
+
+    @Test
+    void staleTicketCannotCompleteANewerLoad() {
+        long first = cache.beginLoad(clientId);
+        cache.evict(clientId);
+        long second = cache.beginLoad(clientId);
+
+        // The first load read the database before the client was evicted
+        assertThat(cache.completeLoad(clientId, first, values("old"), APPEND)).isNull();
+        cache.cancelLoad(clientId, first);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(clientId)).isNull();
+
+        cache.completeLoad(clientId, second, values("new"), APPEND);
+        assertThat(cache.get(clientId)).containsExactly("new");
+    }
+
+    @Test
+    void cancelledLoadCanBeRetried() {
+        long ticket = cache.beginLoad(clientId);
+        cache.write(clientId, List.of("write"), APPEND);
+
+        cache.cancelLoad(clientId, ticket);
+
+        assertThat(cache.size()).isZero();
+        long retry = cache.beginLoad(clientId);
+        assertThat(retry).isPositive().isNotEqualTo(ticket);
+        // Writes kept aside for the cancelled load are gone with it
+        cache.completeLoad(clientId, retry, values(), APPEND);
+        assertThat(cache.get(clientId)).isEmpty();
+    }
+
+    @Test
+    void clearedClientCannotBeInstalledByItsLoad() {
+        long ticket = cache.beginLoad(clientId);
+        cache.clear();
+
+        assertThat(cache.completeLoad(clientId, ticket, values("loaded"), APPEND)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void mergeCanDropTheClient() {
+        ClientLoadingCache.Merge<List<String>, String> refuse = (value, writes) -> writes.isEmpty() ? value.size() : -1;
+        UUID other = UUID.randomUUID();
+        cache.completeLoad(other, cache.beginLoad(other), values("kept"), APPEND);
+
+        long ticket = cache.beginLoad(clientId);
+        cache.write(clientId, List.of("write"), refuse);
+        assertThat(cache.completeLoad(clientId, ticket, values("loaded"), refuse)).isNull();
+        assertThat(cache.get(clientId)).isNull();
+
+        cache.completeLoad(clientId, cache.beginLoad(clientId), values("a", "b"), refuse);
+        cache.write(clientId, List.of("write"), refuse);
+
+        assertThat(cache.get(clientId)).isNull();
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.getWeight()).isEqualTo(1);
+        assertThat(cache.getEvictionCount()).isZero();
+    }
+
+    @Test
+    void leastRecentlyUsedClientIsEvictedButNotWhileLoading() {
+        ClientLoadingCache<List<String>, String> small = new ClientLoadingCache<>(4);
+        UUID loading = UUID.randomUUID();
+        UUID idle = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        long loadingTicket = small.beginLoad(loading);
+        small.completeLoad(idle, small.beginLoad(idle), values("a", "b"), APPEND);
+        small.completeLoad(active, small.beginLoad(active), values("a", "b"), APPEND);
+        assertThat(small.get(active)).isNotNull();
+
+        small.write(active, List.of("c"), APPEND);
+
+        assertThat(small.size()).isEqualTo(2);
+        assertThat(small.getWeight()).isEqualTo(3);
+        assertThat(small.getEvictionCount()).isEqualTo(1);
+        assertThat(small.get(idle)).isNull();
+        small.completeLoad(loading, loadingTicket, values("a"), APPEND);
+        assertThat(small.get(loading)).containsExactly("a");
+    }
+
+    @Test
+    void idleClientsAreEvictedButNotWhileLoading() {
+        UUID loading = UUID.randomUUID();
+        long loadingTicket = cache.beginLoad(loading);
+        cache.completeLoad(clientId, cache.beginLoad(clientId), values("a"), APPEND);
+
+        cache.evictIdleSince(System.currentTimeMillis() + 1);
+
+        assertThat(cache.get(clientId)).isNull();
+        assertThat(cache.getWeight()).isZero();
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+        assertThat(cache.completeLoad(loading, loadingTicket, values("b"), APPEND)).containsExactly("b");
+    }
+
+    @Test
+    void noConcurrentWriteIsLostWhileLoading() throws Exception {
+        long ticket = cache.beginLoad(clientId);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 250; i++) {
+                        cache.write(clientId, List.of("write"), APPEND);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            cache.completeLoad(clientId, ticket, values("loaded"), APPEND);
+            for (Future<?> writer : writers) {
+                writer.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(cache.get(clientId)).hasSize(1001);
+        assertThat(cache.getWeight()).isEqualTo(1001);
+    }
+
+    private static List<String> values(String... values) {
+        return new ArrayList<>(List.of(values));
+    }
+}
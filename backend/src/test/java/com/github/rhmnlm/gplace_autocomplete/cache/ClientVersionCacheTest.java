@@ -0,0 +1,73 @@
+package com.github.rhmnlm.gplace_autocomplete.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class ClientVersionCacheTest {
+
+    @Test
+    void disabledCacheHasNoETags() {
+        ClientVersionCache cache = new ClientVersionCache(false, 10);
+        UUID clientId = UUID.randomUUID();
+
+        cache.increment(clientId);
+        cache.incrementAll();
+
+        assertThat(cache.getETag(clientId)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void writeMovesOnlyThatClientToANewETag() {
+        ClientVersionCache cache = new ClientVersionCache(true, 10);
+        UUID written = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        String writtenBefore = cache.getETag(written);
+        String otherBefore = cache.getETag(other);
+
+        cache.increment(written);
+
+        assertThat(cache.getETag(written)).isNotEqualTo(writtenBefore).startsWith("W/\"");
+        assertThat(cache.getETag(written)).isEqualTo(cache.getETag(written));
+        assertThat(cache.getETag(other)).isEqualTo(otherBefore);
+    }
+
+    @Test
+    void evictionNeverBringsBackAnOldETag() {
+        ClientVersionCache cache = new ClientVersionCache(true, 1);
+        UUID evicted = UUID.randomUUID();
+        UUID neverWritten = UUID.randomUUID();
+        String neverWrittenBefore = cache.getETag(neverWritten);
+        String evictedBefore = cache.getETag(evicted);
+        cache.increment(evicted);
+        String evictedWritten = cache.getETag(evicted);
+
+        cache.increment(UUID.randomUUID());
+
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+        // Forgotten clients fall back to the floor, raised to the evicted version
+        assertThat(cache.getETag(evicted)).isEqualTo(evictedWritten).isNotEqualTo(evictedBefore);
+        assertThat(cache.getETag(neverWritten)).isNotEqualTo(neverWrittenBefore);
+        cache.increment(evicted);
+        assertThat(cache.getETag(evicted)).isNotEqualTo(evictedWritten);
+    }
+
+    @Test
+    void incrementAllMovesEveryClient() {
+        ClientVersionCache cache = new ClientVersionCache(true, 10);
+        UUID written = UUID.randomUUID();
+        UUID neverWritten = UUID.randomUUID();
+        cache.increment(written);
+        String writtenBefore = cache.getETag(written);
+        String neverWrittenBefore = cache.getETag(neverWritten);
+
+        cache.incrementAll();
+
+        assertThat(cache.getETag(written)).isNotEqualTo(writtenBefore);
+        assertThat(cache.getETag(neverWritten)).isNotEqualTo(neverWrittenBefore);
+        assertThat(cache.size()).isZero();
+    }
+}
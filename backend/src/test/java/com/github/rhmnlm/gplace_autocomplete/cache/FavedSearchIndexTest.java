@@ -0,0 +1,80 @@
+package com.github.rhmnlm.gplace_autocomplete.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse;
+
+class FavedSearchIndexTest {
+
+    private final UUID clientId = UUID.randomUUID();
+    private final FavedSearchIndex index = new FavedSearchIndex(true, 1000, 10000, Duration.ofMinutes(30));
+
+    @Test
+    void favoritesSavedDuringALoadAreApplied() {
+        LocationResponse cafe = favorite("Cafe", "Food");
+        long ticket = index.beginLoad(clientId);
+
+        LocationResponse bakery = favorite("Bakery", "Food");
+        index.put(clientId, bakery);
+        // Recategorized after the load read it
+        LocationResponse recategorized = new LocationResponse(cafe.getId(), "Cafe", "35.0", "139.0",
+            cafe.getCreatedAt(), clientId, UUID.randomUUID(), "Work");
+        index.put(clientId, recategorized);
+
+        assertThat(index.completeLoad(clientId, ticket, List.of(cafe), "cafe")).containsExactly(cafe.getId());
+
+        assertThat(index.search(clientId, "food")).containsExactly(bakery.getId());
+        assertThat(index.search(clientId, "work")).containsExactly(cafe.getId());
+        assertThat(index.getIndexedDocuments()).isEqualTo(2);
+    }
+
+    @Test
+    void tooLargeClientIsNotLoadedAgain() {
+        long ticket = index.beginLoad(clientId);
+        index.put(clientId, favorite("Cafe", null));
+
+        index.markTooLarge(clientId, ticket);
+
+        assertThat(index.search(clientId, "cafe")).isNull();
+        assertThat(index.beginLoad(clientId)).isEqualTo(-1);
+        assertThat(index.getIndexedDocuments()).isZero();
+    }
+
+    @Test
+    void clientGrowingPastTheLimitIsDropped() {
+        FavedSearchIndex small = new FavedSearchIndex(true, 2, 1000, Duration.ofMinutes(30));
+        long ticket = small.beginLoad(clientId);
+        small.completeLoad(clientId, ticket, List.of(favorite("Cafe", null), favorite("Park", null)), "cafe");
+
+        small.put(clientId, favorite("Bakery", null));
+
+        assertThat(small.search(clientId, "cafe")).isNull();
+        assertThat(small.getIndexedDocuments()).isZero();
+    }
+
+    @Test
+    void leastRecentlyUsedClientsAreEvictedBeyondMaxDocuments() {
+        FavedSearchIndex small = new FavedSearchIndex(true, 100, 3, Duration.ofMinutes(30));
+        UUID older = UUID.randomUUID();
+        UUID newer = UUID.randomUUID();
+        small.completeLoad(older, small.beginLoad(older), List.of(favorite("Cafe", null), favorite("Park", null)), "cafe");
+        small.completeLoad(newer, small.beginLoad(newer), List.of(favorite("Bakery", null), favorite("Museum", null)), "cafe");
+
+        assertThat(small.search(older, "cafe")).isNull();
+        assertThat(small.search(newer, "bakery")).hasSize(1);
+        assertThat(small.getIndexedDocuments()).isEqualTo(2);
+        assertThat(small.getEvictionCount()).isEqualTo(1);
+    }
+
+    private LocationResponse favorite(String placeDesc, String categoryName) {
+        return new LocationResponse(UUID.randomUUID(), placeDesc, "35.0", "139.0", LocalDateTime.now(), clientId,
+            categoryName != null ? UUID.randomUUID() : null, categoryName);
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.rhmnlm.gplace_autocomplete.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse;
+import com.github.rhmnlm.gplace_autocomplete.dto.PlaceSuggestionResponse;
+import com.github.rhmnlm.gplace_autocomplete.dto.VisitedPlaceResponse;
+
+class PlaceSuggestionIndexTest {
+
+    private final UUID clientId = UUID.randomUUID();
+    private final LocalDateTime now = LocalDateTime.now();
+    private final PlaceSuggestionIndex index = new PlaceSuggestionIndex(true, 10, 100, Duration.ofMinutes(30), Duration.ofDays(30));
+
+    @Test
+    void anyWordMatchesThePrefixIgnoringCaseAndAccents() {
+        load(List.of(visitedPlace("Café de Flore", 1), visitedPlace("Eiffel Tower", 1)), List.of());
+
+        assertThat(suggestions("CAFE")).containsExactly("Café de Flore");
+        assertThat(suggestions("flo")).containsExactly("Café de Flore");
+        assertThat(suggestions("tow")).containsExactly("Eiffel Tower");
+        assertThat(suggestions("ower")).isEmpty();
+    }
+
+    @Test
+    void placesAreRankedByVisitsWithFavoritesWeighted() {
+        load(List.of(visitedPlace("Park Hyatt", 7), visitedPlace("Park Station", 2)), List.of(location("Park Cafe")));
+
+        // The favorite counts as five visits, and the place visited most ranks first
+        assertThat(suggestions("park")).containsExactly("Park Hyatt", "Park Cafe", "Park Station");
+        assertThat(index.suggest(clientId, "park", 1)).hasSize(1);
+    }
+
+    @Test
+    void sameNamedPlacesAtDifferentCoordinatesStayApart() {
+        VisitedPlaceResponse shibuya = new VisitedPlaceResponse("Blue Bottle", new BigDecimal("35.671000"),
+            new BigDecimal("139.650000"), 3, now, now);
+        VisitedPlaceResponse shinjuku = new VisitedPlaceResponse("Blue Bottle", new BigDecimal("35.690000"),
+            new BigDecimal("139.700000"), 1, now, now);
+        LocationResponse faved = new LocationResponse(UUID.randomUUID(), "Blue Bottle", "35.671", "139.65", now, clientId);
+
+        load(List.of(shibuya, shinjuku), List.of(faved));
+
+        // The favorite is the Shibuya branch, coordinates read as the API formats them
+        assertThat(index.suggest(clientId, "blue", 5))
+            .extracting(PlaceSuggestionResponse::getLatitude, PlaceSuggestionResponse::getLongitude,
+                PlaceSuggestionResponse::getVisitCount, PlaceSuggestionResponse::isFaved)
+            .containsExactly(
+                tuple("35.671", "139.65", 3L, true),
+                tuple("35.69", "139.7", 1L, false));
+    }
+
+    @Test
+    void savesCommittedDuringALoadAreAddedOnTop() {
+        long ticket = index.beginLoad(clientId);
+
+        index.addVisits(clientId, List.of(location("Tokyo Tower")));
+        index.addFaved(clientId, location("Tokyo Station"));
+        index.completeLoad(clientId, ticket, List.of(visitedPlace("Tokyo Tower", 4)), List.of());
+
+        assertThat(index.suggest(clientId, "tokyo", 5))
+            .extracting(PlaceSuggestionResponse::getPlaceDesc, PlaceSuggestionResponse::getVisitCount,
+                PlaceSuggestionResponse::isFaved)
+            .containsExactlyInAnyOrder(
+                tuple("Tokyo Tower", 5L, false),
+                tuple("Tokyo Station", 0L, true));
+    }
+
+    private void load(List<VisitedPlaceResponse> visited, List<LocationResponse> faved) {
+        index.completeLoad(clientId, index.beginLoad(clientId), visited, faved);
+    }
+
+    private List<String> suggestions(String prefix) {
+        return index.suggest(clientId, prefix, 10).stream().map(PlaceSuggestionResponse::getPlaceDesc).toList();
+    }
+
+    private VisitedPlaceResponse visitedPlace(String placeDesc, long visitCount) {
+        return new VisitedPlaceResponse(placeDesc, "35.0", "139.0", visitCount, now, now);
+    }
+
+    // A visit or a favorite, the index only tells them apart by how they are added
+    private LocationResponse location(String placeDesc) {
+        return new LocationResponse(UUID.randomUUID(), placeDesc, "35.0", "139.0", now, clientId);
+    }
+}
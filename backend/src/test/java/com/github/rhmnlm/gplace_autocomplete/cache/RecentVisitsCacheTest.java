@@ -0,0 +1,130 @@
+package com.github.rhmnlm.gplace_autocomplete.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse;
+
+class RecentVisitsCacheTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 3, Sort.by(Sort.Order.desc("createdAt")));
+
+    private final UUID clientId = UUID.randomUUID();
+    private final LocalDateTime now = LocalDateTime.now();
+    private final RecentVisitsCache cache = new RecentVisitsCache(true, 3, 1000);
+
+    @Test
+    void visitCommittedBetweenTheWindowAndTheCountIsCountedOnce() {
+        List<LocationResponse> window = List.of(visit(3), visit(4), visit(5));
+        // Committed after the window was read, so the count of older visits does not include it
+        LocationResponse between = visit(1);
+
+        long ticket = cache.beginLoad(clientId);
+        cache.addAll(clientId, List.of(between));
+        cache.completeLoad(clientId, ticket, window, 3 + 7);
+        // Seen again once loaded, it is already cached and not counted a second time
+        cache.addAll(clientId, List.of(between));
+
+        Page<LocationResponse> page = cache.getFirstPage(clientId, FIRST_PAGE);
+        assertThat(page.getContent()).containsExactly(between, window.get(0), window.get(1));
+        assertThat(page.getTotalElements()).isEqualTo(11);
+    }
+
+    @Test
+    void visitCommittedAfterTheLoadIsCountedOnce() {
+        List<LocationResponse> window = List.of(visit(3), visit(4), visit(5));
+        LocationResponse later = visit(1);
+
+        cache.completeLoad(clientId, cache.beginLoad(clientId), window, 3 + 7);
+        cache.addAll(clientId, List.of(later));
+
+        Page<LocationResponse> page = cache.getFirstPage(clientId, FIRST_PAGE);
+        assertThat(page.getContent()).containsExactly(later, window.get(0), window.get(1));
+        assertThat(page.getTotalElements()).isEqualTo(11);
+        assertThat(cache.getCachedVisits()).isEqualTo(3);
+    }
+
+    @Test
+    void visitsCommittedDuringALoadAreMergedInOrder() {
+        LocationResponse read = visit(4);
+        LocationResponse newer = visit(1);
+        LocationResponse between = visit(2);
+
+        long ticket = cache.beginLoad(clientId);
+        cache.addAll(clientId, List.of(newer, read));
+        cache.addAll(clientId, List.of(between));
+        assertThat(cache.getFirstPage(clientId, FIRST_PAGE)).isNull();
+        cache.completeLoad(clientId, ticket, List.of(read), 1);
+
+        Page<LocationResponse> page = cache.getFirstPage(clientId, FIRST_PAGE);
+        assertThat(page.getContent()).containsExactly(newer, between, read);
+        assertThat(page.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void visitOlderThanTheWindowDropsTheClient() {
+        List<LocationResponse> window = List.of(visit(3), visit(4), visit(5));
+
+        // The count of older visits may or may not include it
+        long ticket = cache.beginLoad(clientId);
+        cache.addAll(clientId, List.of(visit(9)));
+        cache.completeLoad(clientId, ticket, window, 3 + 7);
+
+        assertThat(cache.getFirstPage(clientId, FIRST_PAGE)).isNull();
+        assertThat(cache.size()).isZero();
+
+        cache.completeLoad(clientId, cache.beginLoad(clientId), window, 3 + 7);
+        cache.addAll(clientId, List.of(visit(1), visit(9)));
+
+        assertThat(cache.getFirstPage(clientId, FIRST_PAGE)).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getCachedVisits()).isZero();
+    }
+
+    @Test
+    void olderVisitIsKeptWhenTheLoadReadEverything() {
+        LocationResponse read = visit(3);
+        LocationResponse older = visit(9);
+
+        cache.completeLoad(clientId, cache.beginLoad(clientId), List.of(read), 1);
+        cache.addAll(clientId, List.of(older));
+
+        Page<LocationResponse> page = cache.getFirstPage(clientId, FIRST_PAGE);
+        assertThat(page.getContent()).containsExactly(read, older);
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void leastRecentlyUsedClientIsEvictedButNotWhileLoading() {
+        RecentVisitsCache small = new RecentVisitsCache(true, 3, 4);
+        UUID loading = UUID.randomUUID();
+        UUID idle = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        long loadingTicket = small.beginLoad(loading);
+        small.completeLoad(idle, small.beginLoad(idle), List.of(visit(1), visit(2)), 2);
+        small.completeLoad(active, small.beginLoad(active), List.of(visit(1), visit(2)), 2);
+        assertThat(small.getFirstPage(active, FIRST_PAGE)).isNotNull();
+
+        small.addAll(active, List.of(visit(0)));
+
+        assertThat(small.size()).isEqualTo(2);
+        assertThat(small.getCachedVisits()).isEqualTo(3);
+        assertThat(small.getFirstPage(idle, FIRST_PAGE)).isNull();
+        small.completeLoad(loading, loadingTicket, List.of(visit(1)), 1);
+        assertThat(small.getFirstPage(loading, FIRST_PAGE).getContent()).hasSize(1);
+    }
+
+    private LocationResponse visit(int minutesAgo) {
+        return new LocationResponse(UUID.randomUUID(), "Tokyo Tower", "35.0", "139.0",
+            now.minusMinutes(minutesAgo), clientId);
+    }
+}
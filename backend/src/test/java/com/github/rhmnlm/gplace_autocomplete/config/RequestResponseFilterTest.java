@@ -0,0 +1,29 @@
+package com.github.rhmnlm.gplace_autocomplete.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class RequestResponseFilterTest {
+
+    @Test
+    void quotedValuesStayOnOneLine() {
+        String body = "name,latitude\r\nCafe,35.1\n2026-01-01 INFO http.exchange - method=GET uri=/forged";
+
+        assertThat(RequestResponseFilter.quote(body))
+            .isEqualTo("\"name,latitude\\r\\nCafe,35.1\\n2026-01-01 INFO http.exchange - method=GET uri=/forged\"")
+            .doesNotContain("\n", "\r");
+    }
+
+    @Test
+    void quotesBackslashesAndControlCharactersAreEscaped() {
+        assertThat(RequestResponseFilter.quote("say \"hi\"\t\\ \u0000\u2028"))
+            .isEqualTo("\"say \\\"hi\\\"\\t\\\\ \\u0000\\u2028\"");
+    }
+
+    @Test
+    void missingValueIsADash() {
+        assertThat(RequestResponseFilter.quote(null)).isEqualTo("-");
+        assertThat(RequestResponseFilter.quote("")).isEqualTo("\"\"");
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.rhmnlm.gplace_autocomplete.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.github.rhmnlm.gplace_autocomplete.cache.ClientVersionCache;
+import com.github.rhmnlm.gplace_autocomplete.cache.FavedSearchIndex;
+import com.github.rhmnlm.gplace_autocomplete.dto.CategoryRequest;
+import com.github.rhmnlm.gplace_autocomplete.entity.Category;
+import com.github.rhmnlm.gplace_autocomplete.entity.Client;
+import com.github.rhmnlm.gplace_autocomplete.repository.CategoryRepository;
+import com.github.rhmnlm.gplace_autocomplete.service.CategoryService;
+import com.github.rhmnlm.gplace_autocomplete.service.ClientService;
+
+class ClientConditionalGetTest {
+
+    private final UUID clientId = UUID.randomUUID();
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void currentETagIsAnsweredWithoutTheBody() {
+        ClientConditionalGet conditionalGet = new ClientConditionalGet(new ClientVersionCache(true, 10));
+
+        ResponseEntity<List<String>> first = get(conditionalGet, null);
+        ResponseEntity<List<String>> revalidated = get(conditionalGet, first.getHeaders().getETag());
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getHeaders().getCacheControl()).isEqualTo("no-cache, private");
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(revalidated.getBody()).isNull();
+        assertThat(revalidated.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void otherETagGetsTheBody() {
+        ClientConditionalGet conditionalGet = new ClientConditionalGet(new ClientVersionCache(true, 10));
+
+        ResponseEntity<List<String>> response = get(conditionalGet, "W/\"other-1\"");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly("list");
+    }
+
+    @Test
+    void writeIsServedOnceItCommits() {
+        ClientVersionCache versions = new ClientVersionCache(true, 10);
+        ClientConditionalGet conditionalGet = new ClientConditionalGet(versions);
+        CategoryService categoryService = categoryService(versions);
+        String eTag = get(conditionalGet, null).getHeaders().getETag();
+
+        TransactionSynchronizationManager.initSynchronization();
+        categoryService.createCategory(categoryRequest("Food"));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+        // Until the transaction commits, the previous response is still current
+        assertThat(get(conditionalGet, eTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        ResponseEntity<List<String>> afterCommit = get(conditionalGet, eTag);
+        assertThat(afterCommit.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterCommit.getHeaders().getETag()).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void rolledBackWriteKeepsTheETag() {
+        ClientVersionCache versions = new ClientVersionCache(true, 10);
+        ClientConditionalGet conditionalGet = new ClientConditionalGet(versions);
+        String eTag = get(conditionalGet, null).getHeaders().getETag();
+
+        TransactionSynchronizationManager.initSynchronization();
+        categoryService(versions).createCategory(categoryRequest("Food"));
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(get(conditionalGet, eTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void evictedClientStaysCurrentUntilItWritesAgain() {
+        ClientVersionCache versions = new ClientVersionCache(true, 1);
+        ClientConditionalGet conditionalGet = new ClientConditionalGet(versions);
+        versions.increment(clientId);
+        String eTag = get(conditionalGet, null).getHeaders().getETag();
+
+        versions.increment(UUID.randomUUID());
+        assertThat(versions.getEvictionCount()).isEqualTo(1);
+        // Nothing changed for this client, so its response is still current after being forgotten
+        assertThat(get(conditionalGet, eTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        versions.increment(clientId);
+        assertThat(get(conditionalGet, eTag).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void disabledVersionsAlwaysGetTheBody() {
+        ClientConditionalGet conditionalGet = new ClientConditionalGet(new ClientVersionCache(false, 10));
+
+        ResponseEntity<List<String>> response = get(conditionalGet, "*");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNull();
+        assertThat(response.getHeaders().getCacheControl()).isNull();
+        assertThat(queries).hasValue(1);
+    }
+
+    private ResponseEntity<List<String>> get(ClientConditionalGet conditionalGet, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/locations/faved");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        ServletWebRequest webRequest = new ServletWebRequest(request, new MockHttpServletResponse());
+        return conditionalGet.respond(webRequest, clientId, () -> {
+            queries.incrementAndGet();
+            return List.of("list");
+        });
+    }
+
+    private CategoryRequest categoryRequest(String categoryName) {
+        CategoryRequest request = new CategoryRequest();
+        request.setClientId(clientId);
+        request.setCategoryName(categoryName);
+        return request;
+    }
+
+    private CategoryService categoryService(ClientVersionCache versions) {
+        Client client = new Client();
+        client.setClientId(clientId);
+        ClientService clientService = mock(ClientService.class);
+        when(clientService.getClientReference(clientId)).thenReturn(client);
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        return new CategoryService(categoryRepository, clientService, mock(FavedSearchIndex.class), versions);
+    }
+}
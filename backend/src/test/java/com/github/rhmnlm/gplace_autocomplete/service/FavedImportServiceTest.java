@@ -0,0 +1,212 @@
+package com.github.rhmnlm.gplace_autocomplete.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.github.rhmnlm.gplace_autocomplete.cache.ClientVersionCache;
+import com.github.rhmnlm.gplace_autocomplete.cache.FavedSearchIndex;
+import com.github.rhmnlm.gplace_autocomplete.cache.PlaceSuggestionIndex;
+import com.github.rhmnlm.gplace_autocomplete.dto.FavedImportEvent;
+import com.github.rhmnlm.gplace_autocomplete.entity.Category;
+import com.github.rhmnlm.gplace_autocomplete.entity.Client;
+import com.github.rhmnlm.gplace_autocomplete.entity.FavedLocation;
+import com.github.rhmnlm.gplace_autocomplete.repository.CategoryRepository;
+import com.github.rhmnlm.gplace_autocomplete.repository.FavedLocationRepository;
+import com.github.rhmnlm.gplace_autocomplete.util.UuidUtil;
+
+import jakarta.persistence.EntityManager;
+import tools.jackson.databind.json.JsonMapper;
+
+class FavedImportServiceTest {
+
+    private final UUID clientId = UUID.randomUUID();
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final FavedLocationRepository favedLocationRepository = mock(FavedLocationRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final ClientService clientService = mock(ClientService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final List<FavedLocation> saved = new CopyOnWriteArrayList<>();
+
+    private FavedImportService service;
+
+    @BeforeEach
+    void setUp() {
+        Client client = new Client();
+        client.setClientId(clientId);
+        when(clientService.getClientReference(clientId)).thenReturn(client);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(categoryRepository.findByClient_ClientIdAndCategoryName(any(), any())).thenReturn(Optional.empty());
+        when(categoryRepository.saveAndFlush(any(Category.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(categoryRepository.getReferenceById(any())).thenAnswer(invocation -> {
+            Category category = new Category();
+            category.setId(invocation.getArgument(0));
+            return category;
+        });
+        when(favedLocationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            saved.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        service = new FavedImportService(favedLocationRepository, categoryRepository, clientService,
+            mock(EntityManager.class), jsonMapper, mock(PlaceSuggestionIndex.class), mock(FavedSearchIndex.class),
+            mock(ClientVersionCache.class), transactionManager, 2);
+    }
+
+    @Test
+    void csvRowsAreValidatedOneByOne() throws IOException {
+        String csv = """
+            Name,Lat,Lng,Category
+            Tokyo Tower,35.6586,139.7454,Sights
+            ,35.0,139.0,
+            Far North,91,0,
+            Somewhere,abc,0,
+
+            "Cafe, the good one",35.1,139.1,Food
+            """;
+
+        List<Event> events = importFile(FavedImportService.Format.CSV, csv);
+
+        assertThat(events).filteredOn(event -> event.type() == FavedImportEvent.Type.REJECTED)
+            .extracting(Event::row, Event::message)
+            .containsExactly(
+                tuple(2L, "placeDesc is required"),
+                tuple(3L, "latitude must be between -90 and 90"),
+                tuple(4L, "latitude must be a number"));
+        assertThat(saved).extracting(FavedLocation::getPlaceDesc).containsExactly("Tokyo Tower", "Cafe, the good one");
+        assertThat(saved.get(0).getLatitudeValue()).isEqualByComparingTo(new BigDecimal("35.6586"));
+        assertThat(saved.get(0).getCategory()).isNotNull();
+        assertThat(completed(events))
+            .extracting(Event::rowsRead, Event::imported, Event::rejected, Event::categoriesCreated)
+            .containsExactly(5L, 2L, 3L, 2L);
+    }
+
+    @Test
+    void exportedRowsThatAreNotFavoritesAreSkipped() throws IOException {
+        String csv = """
+            type,id,place_desc,latitude,longitude,category_id,category_name,created_at
+            visited,%s,Station,35.0,139.0,,,2025-01-15T10:30:00
+            faved,%s,Home,35.1,139.1,,,2025-01-15T10:30:00
+            faved,%s,Office,35.2,139.2,,,yesterday
+            """.formatted(UuidUtil.generateUuidV7(), UuidUtil.generateUuidV7(), UuidUtil.generateUuidV7());
+
+        List<Event> events = importFile(FavedImportService.Format.CSV, csv);
+
+        assertThat(saved).extracting(FavedLocation::getPlaceDesc).containsExactly("Home");
+        assertThat(saved.get(0).getCreatedAt()).hasToString("2025-01-15T10:30");
+        assertThat(events).filteredOn(event -> event.type() == FavedImportEvent.Type.REJECTED)
+            .extracting(Event::row).containsExactly(3L);
+        assertThat(completed(events).skipped()).isEqualTo(1);
+    }
+
+    @Test
+    void csvWithoutRequiredColumnsFails() throws IOException {
+        List<Event> events = importFile(FavedImportService.Format.CSV, "name,category\nHome,Food\n");
+
+        assertThat(events).last()
+            .extracting(Event::type, Event::message)
+            .containsExactly(FavedImportEvent.Type.FAILED,
+                "The CSV header must name place_desc, latitude and longitude columns");
+        assertThat(saved).isEmpty();
+    }
+
+    @Test
+    void geoJsonFeaturesAreValidatedOneByOne() throws IOException {
+        String geoJson = """
+            {"type": "FeatureCollection", "name": "export", "features": [
+              {"type": "Feature", "geometry": {"type": "Point", "coordinates": [139.7454, 35.6586]},
+               "properties": {"name": "Tokyo Tower", "category": "Sights", "createdAt": "2025-01-15T10:30:00"}},
+              {"type": "Feature", "geometry": {"type": "LineString", "coordinates": [[0, 0], [1, 1]]},
+               "properties": {"name": "A road"}},
+              42,
+              {"type": "Feature", "geometry": {"type": "Point", "coordinates": [200, 10]},
+               "properties": {"title": "Off the map"}},
+              {"type": "Feature", "geometry": {"type": "Point", "coordinates": [139.1, 35.1]},
+               "properties": {"placeDesc": "Cafe"}}
+            ]}
+            """;
+
+        List<Event> events = importFile(FavedImportService.Format.GEOJSON, geoJson);
+
+        assertThat(events).filteredOn(event -> event.type() == FavedImportEvent.Type.REJECTED)
+            .extracting(Event::row, Event::message)
+            .containsExactly(
+                tuple(2L, "Only Point geometries with [longitude, latitude] coordinates are supported"),
+                tuple(3L, "Feature must be an object"),
+                tuple(4L, "longitude must be between -180 and 180"));
+        assertThat(saved).extracting(FavedLocation::getPlaceDesc).containsExactly("Tokyo Tower", "Cafe");
+        assertThat(saved.get(0).getLongitudeValue()).isEqualByComparingTo(new BigDecimal("139.7454"));
+        assertThat(completed(events).imported()).isEqualTo(2);
+    }
+
+    @Test
+    void geoJsonThatIsNotAFeatureCollectionFails() throws IOException {
+        List<Event> events = importFile(FavedImportService.Format.GEOJSON, "{\"type\": \"Feature\"}");
+
+        assertThat(events).last()
+            .extracting(Event::type, Event::message)
+            .containsExactly(FavedImportEvent.Type.FAILED, "The GeoJSON FeatureCollection has no features array");
+    }
+
+    @Test
+    void categoryCreatedConcurrentlyIsReadBack() throws IOException {
+        Category existing = new Category();
+        existing.setId(UuidUtil.generateUuidV7());
+        existing.setCategoryName("Food");
+        when(categoryRepository.findByClient_ClientIdAndCategoryName(eq(clientId), eq("Food")))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(existing));
+        when(categoryRepository.saveAndFlush(any(Category.class)))
+            .thenThrow(new DataIntegrityViolationException("UQ_category_name_per_client"));
+
+        List<Event> events = importFile(FavedImportService.Format.CSV, """
+            name,latitude,longitude,category
+            Cafe,35.1,139.1,Food
+            Bakery,35.2,139.2,Food
+            """);
+
+        assertThat(saved).extracting(location -> location.getCategory().getId())
+            .containsExactly(existing.getId(), existing.getId());
+        assertThat(completed(events))
+            .extracting(Event::imported, Event::categoriesCreated)
+            .containsExactly(2L, 0L);
+    }
+
+    private List<Event> importFile(FavedImportService.Format format, String content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.importFavorites(clientId, format, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), out);
+        return out.toString(StandardCharsets.UTF_8).lines()
+            .map(line -> jsonMapper.readValue(line, Event.class))
+            .toList();
+    }
+
+    // FavedImportEvent is write-only, so events are read back into a record with the same fields
+    private record Event(FavedImportEvent.Type type, Long row, String message, Long rowsRead, Long imported,
+                         Long rejected, Long skipped, Long categoriesCreated) {
+    }
+
+    private static Event completed(List<Event> events) {
+        assertThat(events).last().extracting(Event::type).isEqualTo(FavedImportEvent.Type.COMPLETED);
+        return events.get(events.size() - 1);
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.rhmnlm.gplace_autocomplete.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.github.rhmnlm.gplace_autocomplete.cache.ClientVersionCache;
+import com.github.rhmnlm.gplace_autocomplete.cache.PlaceSuggestionIndex;
+import com.github.rhmnlm.gplace_autocomplete.cache.RecentVisitsCache;
+import com.github.rhmnlm.gplace_autocomplete.dto.LocationResponse;
+import com.github.rhmnlm.gplace_autocomplete.entity.Client;
+import com.github.rhmnlm.gplace_autocomplete.entity.VisitedLocation;
+import com.github.rhmnlm.gplace_autocomplete.repository.VisitedLocationRepository;
+import com.github.rhmnlm.gplace_autocomplete.util.UuidUtil;
+
+class VisitWriteBehindBufferTest {
+
+    private final UUID clientId = UUID.randomUUID();
+    private final VisitedLocationRepository repository = mock(VisitedLocationRepository.class);
+    private final VisitedPlaceService visitedPlaceService = mock(VisitedPlaceService.class);
+    private final RecentVisitsCache recentVisitsCache = mock(RecentVisitsCache.class);
+    private final PlaceSuggestionIndex placeSuggestionIndex = mock(PlaceSuggestionIndex.class);
+    private final ClientVersionCache clientVersionCache = mock(ClientVersionCache.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    // Visits whose saveAll call returned normally, i.e. whose transaction committed
+    private final List<VisitedLocation> persisted = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void badVisitIsDroppedAloneAfterRetries() {
+        VisitedLocation bad = visit("bad");
+        failWhenSaving(bad, Integer.MAX_VALUE);
+        List<VisitedLocation> good = List.of(visit("a"), visit("b"), visit("c"));
+
+        VisitWriteBehindBuffer buffer = buffer();
+        buffer.start();
+        offer(buffer, good.get(0), bad, good.get(1), good.get(2));
+        buffer.stop();
+
+        assertThat(persisted).containsExactlyInAnyOrderElementsOf(good);
+        assertThat(buffer.getFlushedCount()).isEqualTo(3);
+        assertThat(buffer.getFailedCount()).isEqualTo(1);
+        assertThat(buffer.getRetryCount()).isEqualTo(2);
+        assertThat(cachedIds()).containsExactlyInAnyOrderElementsOf(good.stream().map(VisitedLocation::getId).toList());
+        verify(clientVersionCache, atLeastOnce()).increment(clientId);
+    }
+
+    @Test
+    void transientFailureIsRetriedAsABatch() {
+        VisitedLocation first = visit("a");
+        failWhenSaving(first, 1);
+        List<VisitedLocation> visits = List.of(first, visit("b"));
+
+        VisitWriteBehindBuffer buffer = buffer();
+        buffer.start();
+        offer(buffer, visits.toArray(VisitedLocation[]::new));
+        buffer.stop();
+
+        assertThat(persisted).containsExactlyInAnyOrderElementsOf(visits);
+        assertThat(buffer.getFlushedCount()).isEqualTo(2);
+        assertThat(buffer.getFailedCount()).isZero();
+        assertThat(buffer.getRetryCount()).isEqualTo(1);
+    }
+
+    @Test
+    void offerIsRefusedWhenDisabled() {
+        VisitWriteBehindBuffer buffer = new VisitWriteBehindBuffer(repository, visitedPlaceService, recentVisitsCache,
+            placeSuggestionIndex, clientVersionCache, transactionManager,
+            false, 10, 10, Duration.ofMillis(10), Duration.ofMillis(10), Duration.ofSeconds(5),
+            3, Duration.ofMillis(1), false);
+        buffer.start();
+
+        assertThat(buffer.offer(visit("a"))).isFalse();
+        buffer.stop();
+    }
+
+    private VisitWriteBehindBuffer buffer() {
+        return new VisitWriteBehindBuffer(repository, visitedPlaceService, recentVisitsCache,
+            placeSuggestionIndex, clientVersionCache, transactionManager,
+            true, 100, 100, Duration.ofMillis(20), Duration.ofMillis(50), Duration.ofSeconds(5),
+            3, Duration.ofMillis(1), false);
+    }
+
+    // saveAll fails for the first `times` batches that contain the visit, and saves anything else
+    private void failWhenSaving(VisitedLocation visit, int times) {
+        AtomicInteger failures = new AtomicInteger();
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<VisitedLocation> batch = invocation.getArgument(0);
+            if (batch.contains(visit) && failures.getAndIncrement() < times) {
+                throw new DataIntegrityViolationException("constraint violated");
+            }
+            persisted.addAll(batch);
+            return batch;
+        });
+    }
+
+    private static void offer(VisitWriteBehindBuffer buffer, VisitedLocation... visits) {
+        for (VisitedLocation visit : visits) {
+            assertThat(buffer.offer(visit)).isTrue();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<UUID> cachedIds() {
+        ArgumentCaptor<List<LocationResponse>> captor = ArgumentCaptor.forClass(List.class);
+        verify(recentVisitsCache, atLeastOnce()).addAll(eq(clientId), captor.capture());
+        List<UUID> ids = new ArrayList<>();
+        captor.getAllValues().forEach(visits -> visits.forEach(visit -> ids.add(visit.getId())));
+        return ids;
+    }
+
+    private VisitedLocation visit(String placeDesc) {
+        Client client = new Client();
+        client.setClientId(clientId);
+        VisitedLocation visit = new VisitedLocation();
+        visit.setId(UuidUtil.generateUuidV7());
+        visit.setPlaceDesc(placeDesc);
+        visit.setCoordinates(new BigDecimal("35.6762"), new BigDecimal("139.6503"));
+        visit.setCreatedAt(LocalDateTime.now());
+        visit.setClient(client);
+        return visit;
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.rhmnlm.gplace_autocomplete.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.rhmnlm.gplace_autocomplete.cache.WeatherCache;
+import com.github.rhmnlm.gplace_autocomplete.dto.WeatherBatchRequest;
+import com.github.rhmnlm.gplace_autocomplete.dto.WeatherResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WeatherServiceTest {
+
+    private static final String CURRENT = "{\"latitude\":0,\"longitude\":0,\"current\":{\"temperature_2m\":21.5,"
+        + "\"relative_humidity_2m\":60,\"wind_speed_10m\":3.2,\"is_day\":1}}";
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final AtomicInteger upstreamLocations = new AtomicInteger();
+    private final CountDownLatch batchStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseBatch = new CountDownLatch(1);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private HttpServer server;
+    private WeatherService weatherService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/forecast", this::forecast);
+        server.start();
+        weatherService = new WeatherService("http://localhost:" + server.getAddress().getPort(), 50,
+            Duration.ofSeconds(2), Duration.ofSeconds(5), 5, Duration.ofSeconds(30), 1, false,
+            new WeatherCache(0.01, Duration.ofMinutes(15), Duration.ofHours(1), 100), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseBatch.countDown();
+        executor.shutdownNow();
+        server.stop(0);
+        weatherService.shutdown();
+    }
+
+    @Test
+    void requestForACellInABatchJoinsTheBatch() throws Exception {
+        Future<List<WeatherResult>> batch = executor.submit(() ->
+            weatherService.getWeatherByCoordinates(List.of(coordinate(35.0, 139.0), coordinate(36.0, 140.0))));
+        assertThat(batchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<WeatherResult> single = executor.submit(() -> weatherService.getWeatherByCoordinates(35.0, 139.0));
+        // Let the single request reach the in-flight map while the batch is still waiting upstream
+        Thread.sleep(200);
+        releaseBatch.countDown();
+
+        assertThat(batch.get(5, TimeUnit.SECONDS)).allSatisfy(result -> assertThat(result.getWeather()).isNotNull());
+        assertThat(single.get(5, TimeUnit.SECONDS).getWeather().getTemperature()).isEqualTo(21.5);
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(upstreamLocations).hasValue(2);
+    }
+
+    @Test
+    void overlappingBatchesFetchEachCellOnce() throws Exception {
+        Future<List<WeatherResult>> first = executor.submit(() ->
+            weatherService.getWeatherByCoordinates(List.of(coordinate(35.0, 139.0), coordinate(36.0, 140.0))));
+        assertThat(batchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // One cell overlaps with the batch in flight, the other two are fetched by this request
+        Future<List<WeatherResult>> second = executor.submit(() -> weatherService.getWeatherByCoordinates(
+            List.of(coordinate(36.0, 140.0), coordinate(37.0, 141.0), coordinate(38.0, 142.0))));
+        Thread.sleep(200);
+        releaseBatch.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).hasSize(2);
+        assertThat(second.get(5, TimeUnit.SECONDS)).hasSize(3)
+            .allSatisfy(result -> assertThat(result.getWeather()).isNotNull());
+        assertThat(upstreamLocations).hasValue(4);
+    }
+
+    // Answers like Open-Meteo: an array for several locations, an object for one. The first
+    // multi-location call is held until the test releases it.
+    private void forecast(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        String latitudes = query.replaceAll(".*latitude=([^&]*).*", "$1");
+        int locations = latitudes.split(",").length;
+        upstreamCalls.incrementAndGet();
+        upstreamLocations.addAndGet(locations);
+        if (locations > 1 && batchStarted.getCount() > 0) {
+            batchStarted.countDown();
+            try {
+                releaseBatch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String body = locations == 1 ? CURRENT : "[" + String.join(",", Collections.nCopies(locations, CURRENT)) + "]";
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static WeatherBatchRequest.Coordinate coordinate(double latitude, double longitude) {
+        WeatherBatchRequest.Coordinate coordinate = new WeatherBatchRequest.Coordinate();
+        coordinate.setLatitude(latitude);
+        coordinate.setLongitude(longitude);
+        return coordinate;
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.rhmnlm.gplace_autocomplete.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, Duration.ofMinutes(1));
+
+        fail(breaker, 2);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.recordFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getRejectedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, Duration.ofMinutes(1));
+
+        fail(breaker, 2);
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.recordSuccess();
+        fail(breaker, 2);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void successfulTrialCallCloses() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, Duration.ZERO);
+        fail(breaker, 1);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.recordSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void failedTrialCallReopens() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("test", 5, Duration.ofMillis(50));
+        fail(breaker, 5);
+        Thread.sleep(60);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        // A single failure is enough while half-open, whatever the threshold
+        breaker.recordFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        Thread.sleep(60);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void onlyOneTrialCallIsLetThrough() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, Duration.ZERO);
+        fail(breaker, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                callers.add(executor.submit(() -> {
+                    start.await();
+                    return breaker.tryAcquire();
+                }));
+            }
+            start.countDown();
+            int allowed = 0;
+            for (Future<Boolean> caller : callers) {
+                allowed += caller.get(5, TimeUnit.SECONDS) ? 1 : 0;
+            }
+
+            assertThat(allowed).isEqualTo(1);
+            assertThat(breaker.getRejectedCount()).isEqualTo(7);
+            assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void fail(CircuitBreaker breaker, int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.recordFailure();
+        }
+    }
+}
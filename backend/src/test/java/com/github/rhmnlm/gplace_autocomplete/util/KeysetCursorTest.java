@@ -0,0 +1,67 @@
+package com.github.rhmnlm.gplace_autocomplete.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripKeepsMicrosecondPrecision() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2025, 1, 15, 10, 30, 0, 123_456_000), UuidUtil.generateUuidV7());
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripOnAWholeMinute() {
+        // LocalDateTime.toString leaves out zero seconds
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2025, 1, 15, 10, 30), UUID.randomUUID());
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        for (int i = 0; i < 100; i++) {
+            String token = new KeysetCursor(LocalDateTime.now().plusNanos(i * 1000L), UUID.randomUUID()).encode();
+            assertThat(token).matches("[A-Za-z0-9_-]+");
+        }
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = { "not a cursor!", "MjAyNS0wMS0xNVQxMDozMA" })
+    void malformedTokensAreRejected(String token) {
+        assertThatThrownBy(() -> KeysetCursor.decode(token))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Invalid cursor");
+    }
+
+    @Test
+    void tokenWithABadIdIsRejected() {
+        String token = encodeRaw("2025-01-15T10:30|not-a-uuid");
+
+        assertThatThrownBy(() -> KeysetCursor.decode(token)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void tokenWithABadTimestampIsRejected() {
+        String token = encodeRaw("yesterday|" + UUID.randomUUID());
+
+        assertThatThrownBy(() -> KeysetCursor.decode(token)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
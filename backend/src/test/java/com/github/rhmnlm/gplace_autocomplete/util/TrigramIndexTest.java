@@ -0,0 +1,104 @@
+package com.github.rhmnlm.gplace_autocomplete.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class TrigramIndexTest {
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    @Test
+    void everyTermMustOccurInOneOfTheFields() {
+        UUID tower = put("Tokyo Tower", "Sights");
+        UUID station = put("Tokyo Station", "Transit");
+        put("Eiffel Tower", "Sights");
+
+        assertThat(index.search("tokyo sights")).containsExactly(tower);
+        assertThat(index.search("okyo")).containsExactlyInAnyOrder(tower, station);
+        assertThat(index.search("tokyo museum")).isEmpty();
+    }
+
+    @Test
+    void searchIgnoresCaseAndAccents() {
+        UUID cafe = put("Café de Flore", null);
+
+        assertThat(index.search("CAFE")).containsExactly(cafe);
+        assertThat(index.search("  de   flore ")).containsExactly(cafe);
+    }
+
+    @Test
+    void primaryFieldAndWordStartsRankFirst() {
+        UUID inSecondary = put("Kyoto Station", "Tokyo trip");
+        UUID insideWord = put("Minitokyo Land", null);
+        UUID atWordStart = put("Tokyo Tower", null);
+
+        // A word start in the secondary field outranks the inside of a primary word
+        assertThat(index.search("tokyo")).containsExactly(atWordStart, inSecondary, insideWord);
+    }
+
+    @Test
+    void tiesGoToShorterThenNewerDocuments() {
+        UUID longer = put("Cafe Latte Bar", null);
+        UUID older = put("Cafe", null);
+        UUID newer = put("Cafe", null);
+
+        assertThat(index.search("cafe")).containsExactly(newer, older, longer);
+    }
+
+    @Test
+    void shortTermsOnlyNarrowDownLongerOnes() {
+        UUID tokyo = put("Tokyo Tower", null);
+        put("Eiffel Tower", null);
+
+        assertThat(index.search("ky tower")).containsExactly(tokyo);
+        assertThat(index.search("ky")).isEmpty();
+        assertThat(TrigramIndex.isSearchable("ky to")).isFalse();
+        assertThat(TrigramIndex.isSearchable("ky tow")).isTrue();
+    }
+
+    @Test
+    void putReplacesADocument() {
+        UUID id = put("Old Name", "Food");
+
+        index.put(id, "New Name", "Food");
+
+        assertThat(index.search("old")).isEmpty();
+        assertThat(index.search("new")).containsExactly(id);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removedDocumentsAreNotFound() {
+        UUID removed = put("Cafe", null);
+        UUID kept = put("Cafe Bar", null);
+
+        assertThat(index.remove(removed)).isTrue();
+        assertThat(index.remove(removed)).isFalse();
+
+        assertThat(index.search("cafe")).containsExactly(kept);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void replacingManyTimesRebuildsWithoutLosingDocuments() {
+        UUID other = put("Bakery", null);
+        UUID id = UUID.randomUUID();
+        for (int i = 0; i < 3000; i++) {
+            index.put(id, "Place " + i, null);
+        }
+
+        assertThat(index.search("place 2999")).containsExactly(id);
+        assertThat(index.search("place 1234")).isEmpty();
+        assertThat(index.search("bakery")).containsExactly(other);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    private UUID put(String primary, String secondary) {
+        UUID id = UUID.randomUUID();
+        index.put(id, primary, secondary);
+        return id;
+    }
+}
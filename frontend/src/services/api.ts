@@ -8,6 +8,7 @@ import type {
   CategoryUpdateRequest,
   CategoryResponse,
   WeatherResponse,
+  PlaceSuggestion,
 } from '../types';
 
 const API_BASE_URL = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080/api';
@@ -73,6 +74,12 @@ export const locationsApi = {
 
   getFavedByCategory: (clientId: string, categoryId: string, page: number, size: number): Promise<PaginatedResponse<LocationResponse>> =>
     get(`/locations/faved/category/${categoryId}?clientId=${clientId}&page=${page}&size=${size}`),
+
+  searchFaved: (clientId: string, query: string, page: number, size: number): Promise<PaginatedResponse<LocationResponse>> =>
+    get(`/locations/faved/search?clientId=${clientId}&q=${encodeURIComponent(query)}&page=${page}&size=${size}`),
+
+  suggest: (clientId: string, prefix: string, limit = 5): Promise<PlaceSuggestion[]> =>
+    get(`/locations/suggest?clientId=${clientId}&prefix=${encodeURIComponent(prefix)}&limit=${limit}`),
 };
 
 export const categoriesApi = {
@@ -80,6 +80,16 @@ export interface CategoryResponse {
   clientId: string;
 }
 
+// Places from the client's own history, see locationsApi.suggest
+export interface PlaceSuggestion {
+  placeDesc: string;
+  latitude: string;
+  longitude: string;
+  visitCount: number;
+  faved: boolean;
+  lastUsedAt: string;
+}
+
 // Google Places types
 export interface PlaceDetails {
   placeId: string;
@@ -103,4 +113,7 @@ export interface WeatherResponse {
   latitude: string;
   longitude: string;
   weather: WeatherData | null;
+  // Last known weather served while it is being refreshed
+  stale: boolean;
+  fetchedAt: string | null;
 }